@@ -0,0 +1,72 @@
+import benchmarks.Engine;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import javax.swing.text.AbstractDocument;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.PlainDocument;
+
+/**
+ * {@link Engine} over the application classes, which live in this (default) package.
+ */
+public final class BenchmarkEngine implements Engine {
+    @Override
+    public Object analyze(CharSequence text) {
+        return TextAnalyzer.analyze(text);
+    }
+
+    @Override
+    public Object analyze(CharSequence text, String tokenizer) {
+        return TextAnalyzer.analyze(text, Tokenizer.forId(tokenizer));
+    }
+
+    @Override
+    public Object analyzeParallel(CharSequence text) {
+        return ParallelTextAnalyzer.analyze(text);
+    }
+
+    @Override
+    public Object analyzeApproximate(CharSequence text, int counters) {
+        return new TextAnalyzer().approximateFrequencies(counters).feed(text, 0, text.length()).finish();
+    }
+
+    @Override
+    public Object frequencies(CharSequence text) {
+        return TextAnalyzer.analyze(text).getFrequencies();
+    }
+
+    @Override
+    public int[] topK(Object frequencies, int k) {
+        return ((WordCountTable) frequencies).topK(k);
+    }
+
+    @Override
+    public int[] sortedByCount(Object frequencies) {
+        return ((WordCountTable) frequencies).sortedByCount();
+    }
+
+    @Override
+    public void extract(File file, Writer out) throws IOException {
+        FileTextExtractor.extract(file, out);
+    }
+
+    @Override
+    public Object extractAndAnalyze(File file) throws IOException {
+        TextAnalyzer analyzer = new TextAnalyzer();
+        FileTextExtractor.extract(file, analyzer.asWriter());
+        return analyzer.finish();
+    }
+
+    @Override
+    public Document liveDocument(String text) {
+        AbstractDocument document = new PlainDocument();
+        IncrementalTextStats.install(document);
+        try {
+            document.insertString(0, text, null);
+        } catch (BadLocationException e) {
+            throw new IllegalStateException(e);
+        }
+        return document;
+    }
+}
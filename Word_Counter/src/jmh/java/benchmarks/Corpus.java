@@ -0,0 +1,236 @@
+package benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+
+/**
+ * Deterministic generated text for the benchmarks.
+ *
+ * Word ranks are drawn from an approximately Zipfian (log-uniform) distribution over a fixed
+ * vocabulary, so a few words are very common and most are rare, as in real prose. Sentences
+ * run 5 to 25 words and paragraphs 3 to 10 sentences. The "mixed" language spreads the
+ * vocabulary over Latin, accented Latin, Cyrillic and CJK scripts.
+ *
+ * Files can be written as TXT (streamed, so any size), PDF (English only, the standard
+ * fonts can't show the other scripts) or DOCX.
+ */
+final class Corpus {
+    private static final String LATIN = "abcdefghijklmnopqrstuvwxyz";
+    private static final String ACCENTED = "àáâäçèéêëíîïñóôöúûüßœæ";
+    private static final String CYRILLIC = "абвгдежзийклмнопрстуфхцчшщыэюя";
+    private static final String CJK = "的一是不了人我在有他这中大来上国个到说们为子和你地出道也时年";
+
+    private final String[] words;
+    private final boolean mixed;
+
+    Corpus(String vocabulary, String language) {
+        switch (vocabulary) {
+            case "small":
+                words = new String[1_000];
+                break;
+            case "large":
+                words = new String[1_000_000];
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown vocabulary: " + vocabulary);
+        }
+        switch (language) {
+            case "english":
+                mixed = false;
+                break;
+            case "mixed":
+                mixed = true;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown language: " + language);
+        }
+        for (int rank = 0; rank < words.length; rank++) {
+            words[rank] = word(rank);
+        }
+    }
+
+    /** Parses sizes such as "1KB", "64MB" or "1GB" into a number of characters. */
+    static long parseSize(String size) {
+        String upper = size.toUpperCase(Locale.ROOT);
+        long unit = 1;
+        if (upper.endsWith("KB")) {
+            unit = 1L << 10;
+        } else if (upper.endsWith("MB")) {
+            unit = 1L << 20;
+        } else if (upper.endsWith("GB")) {
+            unit = 1L << 30;
+        }
+        String digits = unit == 1 ? upper : upper.substring(0, upper.length() - 2);
+        return Long.parseLong(digits) * unit;
+    }
+
+    String text(long chars) {
+        if (chars > Integer.MAX_VALUE - 64) {
+            throw new IllegalArgumentException("Too large to hold as one string: " + chars);
+        }
+        StringBuilder text = new StringBuilder((int) chars + 64);
+        generate(text, chars);
+        return text.toString();
+    }
+
+    /** Streams about {@code chars} characters to {@code out}, ending at a paragraph break. */
+    void write(Writer out, long chars) throws IOException {
+        StringBuilder block = new StringBuilder(1 << 16);
+        long written = 0;
+        SplittableRandom random = new SplittableRandom(42);
+        while (written < chars) {
+            block.setLength(0);
+            appendParagraph(block, random);
+            out.append(block);
+            written += block.length();
+        }
+    }
+
+    /** Writes a file of about {@code chars} characters of text in the given format. */
+    void writeFile(File file, String format, long chars) throws IOException {
+        switch (format) {
+            case "txt":
+                try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                        new FileOutputStream(file), StandardCharsets.UTF_8), 1 << 16)) {
+                    write(out, chars);
+                }
+                break;
+            case "pdf":
+                writePdf(file, text(chars));
+                break;
+            case "docx":
+                writeDocx(file, text(chars));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown format: " + format);
+        }
+    }
+
+    private void writePdf(File file, String text) throws IOException {
+        if (mixed) {
+            throw new IllegalArgumentException("PDF corpora are English only");
+        }
+        String[] lines = wrap(text, 90);
+        try (PDDocument document = new PDDocument()) {
+            for (int first = 0; first < lines.length; first += 50) {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    content.beginText();
+                    content.setFont(PDType1Font.HELVETICA, 10);
+                    content.newLineAtOffset(40, 740);
+                    for (int line = first; line < Math.min(lines.length, first + 50); line++) {
+                        content.showText(lines[line]);
+                        content.newLineAtOffset(0, -14);
+                    }
+                    content.endText();
+                }
+            }
+            document.save(file);
+        }
+    }
+
+    private static void writeDocx(File file, String text) throws IOException {
+        try (XWPFDocument document = new XWPFDocument(); OutputStream out = new FileOutputStream(file)) {
+            for (String paragraph : text.split("\n\n")) {
+                document.createParagraph().createRun().setText(paragraph);
+            }
+            document.write(out);
+        }
+    }
+
+    // Breaks text into lines of at most width characters, at spaces; paragraph breaks become empty lines
+    private static String[] wrap(String text, int width) {
+        List<String> lines = new ArrayList<>();
+        for (String paragraph : text.split("\n")) {
+            int start = 0;
+            while (paragraph.length() - start > width) {
+                int end = paragraph.lastIndexOf(' ', start + width);
+                if (end <= start) {
+                    end = start + width;
+                }
+                lines.add(paragraph.substring(start, end));
+                start = end + 1;
+            }
+            lines.add(paragraph.substring(start));
+        }
+        return lines.toArray(new String[0]);
+    }
+
+    private void generate(StringBuilder text, long chars) {
+        SplittableRandom random = new SplittableRandom(42);
+        while (text.length() < chars) {
+            appendParagraph(text, random);
+        }
+    }
+
+    private void appendParagraph(StringBuilder text, SplittableRandom random) {
+        int sentences = random.nextInt(3, 11);
+        for (int s = 0; s < sentences; s++) {
+            int length = random.nextInt(5, 26);
+            for (int w = 0; w < length; w++) {
+                String word = words[zipfRank(random)];
+                if (w == 0 && !mixed) {
+                    text.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+                } else {
+                    text.append(word);
+                }
+                if (w == length / 2 && random.nextInt(4) == 0) {
+                    text.append(',');
+                }
+                text.append(w == length - 1 ? (random.nextInt(10) == 0 ? "? " : ". ") : " ");
+            }
+        }
+        text.setCharAt(text.length() - 1, '\n');
+        text.append('\n');
+    }
+
+    // Log-uniform over ranks, which is Zipf's law with exponent 1
+    private int zipfRank(SplittableRandom random) {
+        double rank = Math.exp(random.nextDouble() * Math.log(words.length + 1)) - 1;
+        return Math.min(words.length - 1, (int) rank);
+    }
+
+    private String word(int rank) {
+        String alphabet = LATIN;
+        if (mixed) {
+            switch (rank & 3) {
+                case 1:
+                    alphabet = ACCENTED;
+                    break;
+                case 2:
+                    alphabet = CYRILLIC;
+                    break;
+                case 3:
+                    alphabet = CJK;
+                    break;
+                default:
+                    break;
+            }
+        }
+        // Frequent words are short, as in natural language
+        StringBuilder word = new StringBuilder();
+        int minLength = alphabet == CJK ? 1 : 2 + Integer.toString(rank).length() / 2;
+        int value = rank;
+        do {
+            word.append(alphabet.charAt(value % alphabet.length()));
+            value /= alphabet.length();
+        } while (value > 0 || word.length() < minLength);
+        return word.toString();
+    }
+}
@@ -0,0 +1,77 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Counting over in-memory text: the single pass that finds words, sentences and paragraphs
+ * and builds the frequency table, its parallel and approximate variants, and ranking.
+ *
+ * 1 GB corpora need about 4 GB of heap: -Djmh.args="-p size=1GB -jvmArgs -Xmx6g".
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CountingBenchmark {
+    @Param({"1KB", "1MB", "64MB"})
+    public String size;
+
+    @Param({"small", "large"})
+    public String vocabulary;
+
+    @Param({"english", "mixed"})
+    public String language;
+
+    private final Engine engine = Engine.load();
+    private String text;
+    private Object frequencies;
+
+    @Setup
+    public void generate() {
+        text = new Corpus(vocabulary, language).text(Corpus.parseSize(size));
+        frequencies = engine.frequencies(text);
+    }
+
+    @Benchmark
+    public Object analyze() {
+        return engine.analyze(text);
+    }
+
+    @Benchmark
+    public Object analyzeParallel() {
+        return engine.analyzeParallel(text);
+    }
+
+    @Benchmark
+    public Object analyzeApproximate() {
+        return engine.analyzeApproximate(text, 1024);
+    }
+
+    @Benchmark
+    public int[] top20() {
+        return engine.topK(frequencies, 20);
+    }
+
+    @Benchmark
+    public int[] top1000() {
+        return engine.topK(frequencies, 1000);
+    }
+
+    @Benchmark
+    public int[] sortedByCount() {
+        return engine.sortedByCount(frequencies);
+    }
+}
@@ -0,0 +1,51 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of keeping the statistics current while typing: one word typed into the middle of
+ * the document and deleted again, each edit updating the counts incrementally.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EditBenchmark {
+    private static final String WORD = "benchmark ";
+
+    @Param({"1KB", "1MB", "64MB"})
+    public String size;
+
+    private Document document;
+    private int offset;
+
+    @Setup
+    public void generate() {
+        String text = new Corpus("large", "english").text(Corpus.parseSize(size));
+        document = Engine.load().liveDocument(text);
+        // Start of a word near the middle
+        offset = text.indexOf(' ', text.length() / 2) + 1;
+    }
+
+    @Benchmark
+    public int typeAndDelete() throws BadLocationException {
+        document.insertString(offset, WORD, null);
+        document.remove(offset, WORD.length());
+        return document.getLength();
+    }
+}
@@ -0,0 +1,51 @@
+package benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import javax.swing.text.Document;
+
+/**
+ * The application code under benchmark.
+ *
+ * JMH refuses benchmarks in the default package, and classes in a named package can't refer
+ * to the application's default-package classes, so the benchmarks reach them through this
+ * interface. {@code BenchmarkEngine}, in the default package, implements it by calling the
+ * real classes directly; it is loaded once, so every call is a monomorphic interface call the
+ * JIT inlines. Results are returned as Object for the benchmarks to hand to JMH.
+ */
+public interface Engine {
+    /** TextAnalyzer.analyze: counts and frequency table in one pass. */
+    Object analyze(CharSequence text);
+
+    /** TextAnalyzer.analyze with the tokenizer of the given id. */
+    Object analyze(CharSequence text, String tokenizer);
+
+    Object analyzeParallel(CharSequence text);
+
+    Object analyzeApproximate(CharSequence text, int counters);
+
+    /** The frequency table of {@code text}, for {@link #topK} and {@link #sortedByCount}. */
+    Object frequencies(CharSequence text);
+
+    int[] topK(Object frequencies, int k);
+
+    int[] sortedByCount(Object frequencies);
+
+    /** FileTextExtractor.extract into {@code out}. */
+    void extract(File file, Writer out) throws IOException;
+
+    /** Extraction streamed through an analyzer, as large files are opened. */
+    Object extractAndAnalyze(File file) throws IOException;
+
+    /** A document whose statistics are kept up to date on every edit, as in the editor. */
+    Document liveDocument(String text);
+
+    static Engine load() {
+        try {
+            return (Engine) Class.forName("BenchmarkEngine").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("BenchmarkEngine is missing from the classpath", e);
+        }
+    }
+}
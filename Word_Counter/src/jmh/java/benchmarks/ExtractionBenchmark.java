@@ -0,0 +1,61 @@
+package benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reading files as the editor does: extraction alone, and extraction streamed through the
+ * analyzer. Files are generated once per trial in the temp directory.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExtractionBenchmark {
+    @Param({"txt", "pdf", "docx"})
+    public String format;
+
+    @Param({"1KB", "1MB", "16MB"})
+    public String size;
+
+    private final Engine engine = Engine.load();
+    private File file;
+
+    @Setup
+    public void generate() throws IOException {
+        file = Files.createTempFile("corpus", "." + format).toFile();
+        new Corpus("large", "english").writeFile(file, format, Corpus.parseSize(size));
+    }
+
+    @TearDown
+    public void delete() throws IOException {
+        Files.deleteIfExists(file.toPath());
+    }
+
+    @Benchmark
+    public void extract() throws IOException {
+        engine.extract(file, Writer.nullWriter());
+    }
+
+    @Benchmark
+    public Object extractAndAnalyze() throws IOException {
+        return engine.extractAndAnalyze(file);
+    }
+}
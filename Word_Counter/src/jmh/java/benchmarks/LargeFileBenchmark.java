@@ -0,0 +1,56 @@
+package benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Counting text files too large for the editor straight from disk, up to 1 GB. English text
+ * takes the ASCII fast path of the memory-mapped reader, mixed text the UTF-8 decoder. Each
+ * run is timed once, as a single read of a cold-ish file would be.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LargeFileBenchmark {
+    @Param({"256MB", "1GB"})
+    public String size;
+
+    @Param({"english", "mixed"})
+    public String language;
+
+    private final Engine engine = Engine.load();
+    private File file;
+
+    @Setup
+    public void generate() throws IOException {
+        file = Files.createTempFile("corpus", ".txt").toFile();
+        new Corpus("large", language).writeFile(file, "txt", Corpus.parseSize(size));
+    }
+
+    @TearDown
+    public void delete() throws IOException {
+        Files.deleteIfExists(file.toPath());
+    }
+
+    @Benchmark
+    public Object countFile() throws IOException {
+        return engine.extractAndAnalyze(file);
+    }
+}
@@ -0,0 +1,163 @@
+package benchmarks;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test for the HTTP analysis service ({@code WordCounterApp --serve}), run against a
+ * server already listening on localhost.
+ *
+ * A fixed number of clients each send requests back to back, over kept-alive connections,
+ * for a set time, after a warmup. Prints the request rate, the latency percentiles and how
+ * many requests were turned away (503) or failed. Not a JMH benchmark: JMH measures code in
+ * one JVM, this measures the service from outside, as its callers see it.
+ *
+ * <pre>
+ * mvn -P benchmark compile
+ * java -cp target/classes benchmarks.ServerLoadTest [--url http://127.0.0.1:8080/analyze]
+ *     [--clients 64] [--seconds 10] [--warmup 3] [--size 1KB]
+ * </pre>
+ */
+public final class ServerLoadTest {
+    private ServerLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String url = "http://127.0.0.1:8080/analyze";
+        int clients = 64;
+        int seconds = 10;
+        int warmup = 3;
+        String size = "1KB";
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--url":
+                    url = args[++i];
+                    break;
+                case "--clients":
+                    clients = Integer.parseInt(args[++i]);
+                    break;
+                case "--seconds":
+                    seconds = Integer.parseInt(args[++i]);
+                    break;
+                case "--warmup":
+                    warmup = Integer.parseInt(args[++i]);
+                    break;
+                case "--size":
+                    size = args[++i];
+                    break;
+                default:
+                    System.err.println("Unknown option " + args[i]);
+                    System.exit(2);
+            }
+        }
+
+        String body = new Corpus("small", "english").text(Corpus.parseSize(size));
+        HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+            .header("Content-Type", "text/plain; charset=utf-8")
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build();
+
+        System.out.printf(Locale.ROOT, "%s, %d clients, %d chars per request%n", url, clients, body.length());
+        run(client, request, clients, warmup);
+        Result result = run(client, request, clients, seconds);
+        System.out.println(result);
+    }
+
+    private static Result run(HttpClient client, HttpRequest request, int clients, int seconds) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        Future<?>[] workers = new Future<?>[clients];
+        Result[] results = new Result[clients];
+        for (int c = 0; c < clients; c++) {
+            Result result = new Result();
+            results[c] = result;
+            workers[c] = pool.submit(() -> {
+                while (System.nanoTime() < end) {
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        result.record(response.statusCode(), System.nanoTime() - start);
+                    } catch (Exception e) {
+                        result.failed++;
+                    }
+                }
+                return null;
+            });
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        pool.shutdown();
+        Result total = new Result();
+        for (Result result : results) {
+            total.add(result);
+        }
+        total.seconds = seconds;
+        return total;
+    }
+
+    /** Counts and latencies of one client, then of all of them. */
+    private static final class Result {
+        private long[] latencies = new long[1024];
+        private int ok;
+        private int rejected;
+        private int failed;
+        private double seconds;
+
+        void record(int status, long nanos) {
+            if (status == 503) {
+                rejected++;
+                return;
+            }
+            if (status != 200) {
+                failed++;
+                return;
+            }
+            if (ok == latencies.length) {
+                latencies = Arrays.copyOf(latencies, ok * 2);
+            }
+            latencies[ok++] = nanos;
+        }
+
+        void add(Result other) {
+            if (ok + other.ok > latencies.length) {
+                latencies = Arrays.copyOf(latencies, ok + other.ok);
+            }
+            System.arraycopy(other.latencies, 0, latencies, ok, other.ok);
+            ok += other.ok;
+            rejected += other.rejected;
+            failed += other.failed;
+        }
+
+        private double percentileMillis(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1);
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            long[] sorted = Arrays.copyOf(latencies, ok);
+            Arrays.sort(sorted);
+            return String.format(Locale.ROOT, "%.0f requests/s; %d ok, %d rejected (503), %d failed; "
+                    + "latency ms p50 %.2f, p90 %.2f, p99 %.2f, max %.2f",
+                ok / seconds, ok, rejected, failed, percentileMillis(sorted, 0.50), percentileMillis(sorted, 0.90),
+                percentileMillis(sorted, 0.99), percentileMillis(sorted, 1.0));
+        }
+    }
+}
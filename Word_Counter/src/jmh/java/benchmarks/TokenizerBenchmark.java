@@ -0,0 +1,48 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The single counting pass under each tokenizer. The Unicode tokenizer is expected to stay
+ * within 1.5x of the ASCII one on the same text.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TokenizerBenchmark {
+    @Param({"1MB", "64MB"})
+    public String size;
+
+    @Param({"english", "mixed"})
+    public String language;
+
+    @Param({"ascii", "unicode", "cjk"})
+    public String tokenizer;
+
+    private final Engine engine = Engine.load();
+    private String text;
+
+    @Setup
+    public void generate() {
+        text = new Corpus("small", language).text(Corpus.parseSize(size));
+    }
+
+    @Benchmark
+    public Object analyze() {
+        return engine.analyze(text, tokenizer);
+    }
+}
@@ -0,0 +1,337 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * On-disk cache of file analyses, so reopening an unchanged file skips extraction and counting.
+ *
+ * Entries are keyed by absolute path and are valid while the file's size and modification
+ * time are unchanged; with {@code verifyContent} a CRC32C of the contents must match too,
+ * which catches edits that preserve the mtime at the cost of reading the file once. Each entry
+ * is one file holding the tokenizer used, the totals, the frequency table in first-seen order,
+ * the phrase counts if there are any (as indexes into that table) and the extracted text (all of it, or the head shown for streamed files), with lengths,
+ * counts and characters as varints. Hits refresh an entry's mtime; once the cache exceeds its size cap the least
+ * recently used entries are deleted.
+ *
+ * The cache is best effort: unreadable or mismatched entries are misses, and failures to
+ * write are ignored.
+ */
+final class AnalysisCache {
+    private static final int MAGIC = 0x57434333; // "WCC3"
+    private static final String SUFFIX = ".wcc";
+    private static final long NO_HASH = -1;
+
+    private final Path directory;
+    private final long maxBytes;
+    private final boolean verifyContent;
+
+    AnalysisCache(Path directory, long maxBytes, boolean verifyContent) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.verifyContent = verifyContent;
+    }
+
+    static Path defaultDirectory() {
+        return Paths.get(System.getProperty("user.home"), ".wordcounter", "cache");
+    }
+
+    /** A cached analysis of {@code file}, or null if there is none for its current version. */
+    Entry get(File file) {
+        Path entryFile = entryFile(file);
+        if (!Files.isRegularFile(entryFile)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(entryFile)))) {
+            if (in.readInt() != MAGIC || !in.readUTF().equals(keyOf(file))
+                    || in.readLong() != file.length() || in.readLong() != file.lastModified()) {
+                return null;
+            }
+            long contentHash = in.readLong();
+            if (verifyContent && (contentHash == NO_HASH || contentHash != contentHash(file))) {
+                return null;
+            }
+
+            Tokenizer tokenizer = Tokenizer.forId(in.readUTF());
+            long words = Varints.readVarLong(in);
+            long characters = Varints.readVarLong(in);
+            long sentences = Varints.readVarLong(in);
+            long paragraphs = Varints.readVarLong(in);
+            WordCountTable frequencies = new WordCountTable();
+            char[] token = new char[64];
+            int entries = Varints.readVarInt(in);
+            for (int i = 0; i < entries; i++) {
+                int length = Varints.readVarInt(in);
+                if (length > token.length) {
+                    token = new char[Math.max(length, token.length * 2)];
+                }
+                readChars(in, token, length);
+                int hash = in.readInt();
+                boolean alphabetic = in.readBoolean();
+                frequencies.add(token, 0, length, hash, alphabetic, Varints.readVarInt(in));
+            }
+            PhraseTable phrases = readPhrases(in, entries);
+            boolean complete = in.readBoolean();
+            char[] text = new char[Varints.readVarInt(in)];
+            readChars(in, text, text.length);
+
+            Files.setLastModifiedTime(entryFile, FileTime.fromMillis(System.currentTimeMillis()));
+            return new Entry(new TextStats(words, characters, sentences, paragraphs, frequencies, tokenizer)
+                .withPhrases(phrases), new String(text), complete);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Stores the analysis of {@code file} as it was when it had {@code size} and
+     * {@code lastModified}, which must be read before extraction starts. {@code complete}
+     * says whether {@code text} is the whole extracted text or only its head.
+     */
+    void put(File file, long size, long lastModified, TextStats stats, String text, boolean complete) {
+        if (stats.getHeavyHitters() != null) {
+            return; // Approximate counts can't be restored into a table
+        }
+        Path temp = null;
+        try {
+            Files.createDirectories(directory);
+            temp = Files.createTempFile(directory, "entry", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeUTF(keyOf(file));
+                out.writeLong(size);
+                out.writeLong(lastModified);
+                out.writeLong(verifyContent ? contentHash(file) : NO_HASH);
+
+                out.writeUTF(stats.getTokenizer() == null ? "" : stats.getTokenizer().getId());
+                Varints.writeVarLong(out, stats.getWords());
+                Varints.writeVarLong(out, stats.getCharacters());
+                Varints.writeVarLong(out, stats.getSentences());
+                Varints.writeVarLong(out, stats.getParagraphs());
+                WordCountTable frequencies = stats.getFrequencies();
+                Varints.writeVarLong(out, frequencies.size());
+                // Entries are written without the ones counted zero times, so phrases are renumbered
+                int[] written = new int[frequencies.entryCount()];
+                int writtenCount = 0;
+                for (int entry = 0; entry < frequencies.entryCount(); entry++) {
+                    if (frequencies.count(entry) <= 0) {
+                        written[entry] = -1;
+                        continue;
+                    }
+                    written[entry] = writtenCount++;
+                    String word = frequencies.word(entry);
+                    Varints.writeVarLong(out, word.length());
+                    writeChars(out, word);
+                    out.writeInt(frequencies.hash(entry));
+                    out.writeBoolean(frequencies.isAlphabetic(entry));
+                    Varints.writeVarLong(out, frequencies.count(entry));
+                }
+                writePhrases(out, stats.getPhrases(), written);
+                out.writeBoolean(complete);
+                Varints.writeVarLong(out, text.length());
+                writeChars(out, text);
+            }
+            if (Files.size(temp) > maxBytes) {
+                return;
+            }
+            try {
+                Files.move(temp, entryFile(file), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, entryFile(file), StandardCopyOption.REPLACE_EXISTING);
+            }
+            temp = null;
+            evict();
+        } catch (IOException | RuntimeException e) {
+            // A lost cache entry only costs a recount
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                    // Left for the next eviction pass to skip
+                }
+            }
+        }
+    }
+
+    // Deletes least recently used entries until the cache fits under its cap
+    private void evict() throws IOException {
+        List<Path> entries = new ArrayList<>();
+        long total = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path entry : stream) {
+                entries.add(entry);
+                total += Files.size(entry);
+            }
+        }
+        if (total <= maxBytes) {
+            return;
+        }
+        entries.sort(Comparator.comparing(entry -> {
+            try {
+                return Files.getLastModifiedTime(entry);
+            } catch (IOException e) {
+                return FileTime.fromMillis(0);
+            }
+        }));
+        for (Path entry : entries) {
+            if (total <= maxBytes) {
+                break;
+            }
+            long size = Files.size(entry);
+            if (Files.deleteIfExists(entry)) {
+                total -= size;
+            }
+        }
+    }
+
+    private Path entryFile(File file) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(keyOf(file).getBytes(StandardCharsets.UTF_8));
+            StringBuilder name = new StringBuilder();
+            for (int i = 0; i < 16; i++) {
+                name.append(String.format("%02x", digest[i]));
+            }
+            return directory.resolve(name.append(SUFFIX).toString());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // Every JVM has SHA-256
+        }
+    }
+
+    private static String keyOf(File file) {
+        return file.toPath().toAbsolutePath().normalize().toString();
+    }
+
+    private static long contentHash(File file) throws IOException {
+        CRC32C crc = new CRC32C();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                crc.update(buffer);
+                buffer.clear();
+            }
+        }
+        return crc.getValue();
+    }
+
+    // Max length (0 for none), then per length the totals and each counted phrase's words and count
+    private static void writePhrases(DataOutputStream out, PhraseTable phrases, int[] written) throws IOException {
+        if (phrases == null) {
+            Varints.writeVarLong(out, 0);
+            return;
+        }
+        Varints.writeVarLong(out, phrases.getMaxLength());
+        for (int length = 2; length <= phrases.getMaxLength(); length++) {
+            Varints.writeVarLong(out, phrases.getTotal(length));
+            Varints.writeVarLong(out, phrases.getMaxUndercount(length));
+            int kept = 0;
+            for (int entry = 0; entry < phrases.entryCount(length); entry++) {
+                if (isWritten(phrases, length, entry, written)) {
+                    kept++;
+                }
+            }
+            Varints.writeVarLong(out, kept);
+            for (int entry = 0; entry < phrases.entryCount(length); entry++) {
+                if (isWritten(phrases, length, entry, written)) {
+                    for (int position = 0; position < length; position++) {
+                        Varints.writeVarLong(out, written[phrases.word(length, entry, position)]);
+                    }
+                    Varints.writeVarLong(out, phrases.count(length, entry));
+                }
+            }
+        }
+    }
+
+    private static boolean isWritten(PhraseTable phrases, int length, int entry, int[] written) {
+        if (phrases.count(length, entry) <= 0) {
+            return false;
+        }
+        for (int position = 0; position < length; position++) {
+            if (written[phrases.word(length, entry, position)] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static PhraseTable readPhrases(DataInputStream in, int wordEntries) throws IOException {
+        int maxLength = Varints.readVarInt(in);
+        if (maxLength == 0) {
+            return null;
+        }
+        PhraseTable phrases = new PhraseTable(maxLength);
+        int[] words = new int[maxLength];
+        for (int length = 2; length <= maxLength; length++) {
+            phrases.setTotals(length, Varints.readVarLong(in), Varints.readVarLong(in));
+            int entries = Varints.readVarInt(in);
+            for (int i = 0; i < entries; i++) {
+                for (int position = 0; position < length; position++) {
+                    words[position] = Varints.readVarInt(in);
+                    if (words[position] >= wordEntries) {
+                        throw new IOException("Phrase word out of range");
+                    }
+                }
+                phrases.add(length, words, 0, Varints.readVarInt(in));
+            }
+        }
+        return phrases;
+    }
+
+    private static void writeChars(DataOutputStream out, String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            Varints.writeVarLong(out, text.charAt(i));
+        }
+    }
+
+    private static void readChars(DataInputStream in, char[] chars, int length) throws IOException {
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) Varints.readVarInt(in);
+        }
+    }
+
+    /** A cached analysis: the stats and the text that was extracted with them. */
+    static final class Entry {
+        private final TextStats stats;
+        private final String text;
+        private final boolean complete;
+
+        Entry(TextStats stats, String text, boolean complete) {
+            this.stats = stats;
+            this.text = text;
+            this.complete = complete;
+        }
+
+        TextStats getStats() {
+            return stats;
+        }
+
+        String getText() {
+            return text;
+        }
+
+        /** False if the text is only the head of a file that was too large for the editor. */
+        boolean isComplete() {
+            return complete;
+        }
+    }
+}
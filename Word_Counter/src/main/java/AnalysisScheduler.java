@@ -0,0 +1,119 @@
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+/**
+ * Runs full text analyses off the Event Dispatch Thread.
+ *
+ * Large texts are split across the fork/join pool by {@link ParallelTextAnalyzer}.
+ * Requests made within the debounce window are coalesced into one run. A new request
+ * cancels the run in flight, and a run's result is only published if no newer request was
+ * made in the meantime. All public methods must be called on the EDT; results are
+ * published there too.
+ */
+public final class AnalysisScheduler {
+    private final Timer debounceTimer;
+    private final ExecutorService worker = WorkerThreads.newExecutor("analysis", 2);
+
+    private Supplier<? extends CharSequence> pendingCapture;
+    private Tokenizer pendingTokenizer;
+    private Consumer<TextStats> pendingPublish;
+    private Future<?> running;
+    private int phraseLength;
+    private boolean indexPositions;
+    private int generation;
+
+    public AnalysisScheduler(int debounceMillis) {
+        debounceTimer = new Timer(debounceMillis, e -> startRun());
+        debounceTimer.setRepeats(false);
+    }
+
+    /** Also counts phrases of up to {@code phraseLength} words in later runs; below 2, none. */
+    public void setPhraseLength(int phraseLength) {
+        this.phraseLength = phraseLength;
+    }
+
+    /** Also records where every token occurs in later runs, see {@link TextAnalyzer#indexPositions}. */
+    public void setIndexPositions(boolean indexPositions) {
+        this.indexPositions = indexPositions;
+    }
+
+    /**
+     * Requests an analysis. When the debounce window elapses, {@code capture} is called on
+     * the EDT to take the text to analyze (or null if there is nothing to do any more), the
+     * text is analyzed on a worker, and {@code publish} receives the result on the EDT.
+     */
+    public void schedule(Supplier<? extends CharSequence> capture, Consumer<TextStats> publish) {
+        schedule(capture, null, publish);
+    }
+
+    /** Same as {@link #schedule(Supplier, Consumer)}, counting with {@code tokenizer} unless it is null. */
+    public void schedule(Supplier<? extends CharSequence> capture, Tokenizer tokenizer, Consumer<TextStats> publish) {
+        generation++;
+        cancelRunning();
+        pendingCapture = capture;
+        pendingTokenizer = tokenizer;
+        pendingPublish = publish;
+        debounceTimer.restart();
+    }
+
+    /** Drops any pending or running analysis. */
+    public void cancel() {
+        generation++;
+        debounceTimer.stop();
+        cancelRunning();
+        pendingCapture = null;
+        pendingTokenizer = null;
+        pendingPublish = null;
+    }
+
+    private void startRun() {
+        Supplier<? extends CharSequence> capture = pendingCapture;
+        Tokenizer tokenizer = pendingTokenizer;
+        Consumer<TextStats> publish = pendingPublish;
+        pendingCapture = null;
+        pendingTokenizer = null;
+        pendingPublish = null;
+        CharSequence text = capture == null ? null : capture.get();
+        if (text == null) {
+            return;
+        }
+
+        int runGeneration = generation;
+        int runPhraseLength = phraseLength;
+        boolean runIndexPositions = indexPositions;
+        running = worker.submit(() -> {
+            Thread thread = Thread.currentThread();
+            TextStats stats;
+            try {
+                stats = ParallelTextAnalyzer.analyze(text, tokenizer, runPhraseLength, runIndexPositions,
+                    thread::isInterrupted);
+            } catch (CancellationException e) {
+                return;
+            }
+            long finished = System.nanoTime();
+            SwingUtilities.invokeLater(() -> {
+                if (runGeneration != generation) {
+                    return; // superseded by a newer request
+                }
+                running = null;
+                long allocated = PerformanceMetrics.threadAllocatedBytes();
+                publish.accept(stats);
+                // From the worker finishing, so time waiting for the EDT counts too
+                PerformanceMetrics.PUBLISH.record(System.nanoTime() - finished, 1, 0,
+                    PerformanceMetrics.threadAllocatedBytes() - allocated);
+            });
+        });
+    }
+
+    private void cancelRunning() {
+        if (running != null) {
+            running.cancel(true);
+            running = null;
+        }
+    }
+}
@@ -0,0 +1,271 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Text analysis over HTTP for other processes on the same machine, without Swing.
+ *
+ * {@code POST /analyze} counts the request body and answers with the statistics as JSON. The
+ * body is UTF-8 text, streamed through a {@link TextAnalyzer} as it arrives so it is never held
+ * in memory, or with {@code ?name=report.pdf} (or .doc, .docx) an uploaded file, which is
+ * spooled to a temp file for its extractor. {@code top=N} (default 10) sets how many of the most
+ * frequent words are listed and {@code tokenizer=ascii|unicode|cjk} overrides detection.
+ * {@code GET /health} reports the requests in flight.
+ *
+ * Each request runs on a virtual thread where the JVM has them (see {@link WorkerThreads}).
+ * At most {@code maxInFlight} requests are analyzed at once; the rest are turned away at once
+ * with 503 and a Retry-After header rather than queued, so a burst can't pile up memory or
+ * latency. The server only listens on the loopback interface.
+ */
+final class AnalysisServer {
+    private static final String USAGE =
+        "Usage: WordCounterApp --serve [--port N] [--max-in-flight N] [--tokenizer auto|ascii|unicode|cjk]";
+    static final int DEFAULT_PORT = 8080;
+    static final int DEFAULT_MAX_IN_FLIGHT = 256;
+    private static final int DEFAULT_TOP = 10;
+    private static final int MAX_TOP = 1000;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Semaphore inFlight;
+    private final int maxInFlight;
+    private final Tokenizer tokenizer;
+
+    /** Binds to {@code port} on the loopback interface (0 picks a free one); call {@link #start()} to serve. */
+    AnalysisServer(int port, int maxInFlight, Tokenizer tokenizer) throws IOException {
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.tokenizer = tokenizer;
+        // Without virtual threads, a few threads beyond the limit are left to answer 503s
+        this.executor = WorkerThreads.newExecutor("http",
+            maxInFlight + Runtime.getRuntime().availableProcessors());
+        // Responses are small: send them at once instead of waiting on the client's delayed ACK.
+        // Read once, when the first server is created
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+        server.setExecutor(executor);
+        server.createContext("/analyze", this::analyze);
+        server.createContext("/health", this::health);
+    }
+
+    /** Starts the server described by {@code args} (without the leading flag) and returns the exit status. */
+    static int run(String[] args) {
+        int port = DEFAULT_PORT;
+        int maxInFlight = DEFAULT_MAX_IN_FLIGHT;
+        String tokenizerId = "auto";
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--port":
+                        port = Integer.parseInt(args[++i]);
+                        break;
+                    case "--max-in-flight":
+                        maxInFlight = Integer.parseInt(args[++i]);
+                        break;
+                    case "--tokenizer":
+                        tokenizerId = args[++i];
+                        break;
+                    default:
+                        throw new IllegalArgumentException(args[i]);
+                }
+            }
+        } catch (RuntimeException e) {
+            maxInFlight = 0;
+        }
+        Tokenizer tokenizer = Tokenizer.forId(tokenizerId);
+        if (maxInFlight <= 0 || port < 0 || port > 0xFFFF || (tokenizer == null && !tokenizerId.equals("auto"))) {
+            System.err.println(USAGE);
+            return 2;
+        }
+
+        AnalysisServer server;
+        try {
+            server = new AnalysisServer(port, maxInFlight, tokenizer);
+        } catch (IOException e) {
+            System.err.println("Cannot listen on port " + port + ": " + e.getMessage());
+            return 1;
+        }
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop, "http-shutdown"));
+        System.err.printf(Locale.ROOT, "Listening on http://%s:%d/ (%d requests in flight, %s threads)%n",
+            InetAddress.getLoopbackAddress().getHostAddress(), server.getPort(), maxInFlight,
+            WorkerThreads.hasVirtualThreads() ? "virtual" : "platform");
+        // The server's dispatcher thread keeps the JVM running
+        return 0;
+    }
+
+    void start() {
+        server.start();
+    }
+
+    /** Stops accepting requests, gives running ones a second to finish, then stops. */
+    void stop() {
+        server.stop(1);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void analyze(HttpExchange exchange) throws IOException {
+        try {
+            if (!exchange.getRequestMethod().equals("POST")) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                respond(exchange, 405, error("Use POST"));
+                return;
+            }
+            if (!inFlight.tryAcquire()) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                respond(exchange, 503, error("Too many requests in flight"));
+                return;
+            }
+            try {
+                Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+                int top = Integer.parseInt(query.getOrDefault("top", String.valueOf(DEFAULT_TOP)));
+                String tokenizerId = query.getOrDefault("tokenizer", "auto");
+                Tokenizer requested = tokenizerId.equals("auto") ? tokenizer : Tokenizer.forId(tokenizerId);
+                if (top < 0 || top > MAX_TOP || requested == null && !tokenizerId.equals("auto")) {
+                    respond(exchange, 400, error("Bad top or tokenizer parameter"));
+                    return;
+                }
+                String name = query.get("name");
+                TextStats stats = name == null || FileTextExtractor.extensionOf(new File(name)).equals("txt")
+                    ? analyzeText(exchange.getRequestBody(), requested)
+                    : analyzeFile(exchange.getRequestBody(), name, requested);
+                respond(exchange, 200, toJson(new AnalysisSnapshot(stats, 0), top));
+            } catch (NumberFormatException e) {
+                respondError(exchange, 400, error("Bad top parameter"));
+            } catch (UnsupportedOperationException e) {
+                respondError(exchange, 415, error(e.getMessage()));
+            } catch (IOException e) {
+                respondError(exchange, 422, error("Cannot read the document: " + e.getMessage()));
+            } finally {
+                inFlight.release();
+            }
+        } catch (RuntimeException e) {
+            respondError(exchange, 500, error(e.toString()));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void health(HttpExchange exchange) throws IOException {
+        try {
+            respond(exchange, 200, String.format(Locale.ROOT, "{\"status\":\"ok\",\"in_flight\":%d,"
+                    + "\"max_in_flight\":%d,\"virtual_threads\":%b}",
+                maxInFlight - inFlight.availablePermits(), maxInFlight, WorkerThreads.hasVirtualThreads()));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    // Counts the body as it is received
+    private static TextStats analyzeText(InputStream body, Tokenizer tokenizer) throws IOException {
+        InputStreamReader reader = new InputStreamReader(body, StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE));
+        return new TextAnalyzer(tokenizer).feed(reader).finish();
+    }
+
+    // PDF and Word extraction needs random access, so the upload goes to a temp file first
+    private static TextStats analyzeFile(InputStream body, String name, Tokenizer tokenizer) throws IOException {
+        String extension = FileTextExtractor.extensionOf(new File(name));
+        if (!FileTextExtractor.isSupported(new File(name))) {
+            throw new UnsupportedOperationException("Unsupported file format: " + extension);
+        }
+        Path upload = Files.createTempFile("upload", "." + extension);
+        try {
+            Files.copy(body, upload, StandardCopyOption.REPLACE_EXISTING);
+            TextAnalyzer analyzer = new TextAnalyzer(tokenizer);
+            FileTextExtractor.extract(upload.toFile(), analyzer.asWriter());
+            return analyzer.finish();
+        } finally {
+            Files.deleteIfExists(upload);
+        }
+    }
+
+    private static String toJson(AnalysisSnapshot stats, int top) {
+        StringBuilder json = new StringBuilder(256 + top * 32);
+        json.append("{\"words\":").append(stats.getWords())
+            .append(",\"characters\":").append(stats.getCharacters())
+            .append(",\"sentences\":").append(stats.getSentences())
+            .append(",\"paragraphs\":").append(stats.getParagraphs())
+            .append(",\"unique_words\":").append(stats.getUniqueWords())
+            .append(",\"longest_word\":").append(BatchCounter.jsonString(stats.getLongestWord()))
+            .append(",\"average_word_length\":")
+            .append(String.format(Locale.ROOT, "%.2f", stats.getAverageWordLength()))
+            .append(",\"reading_time\":").append(stats.getReadingTime())
+            .append(",\"speaking_time\":").append(stats.getSpeakingTime())
+            .append(",\"tokenizer\":")
+            .append(BatchCounter.jsonString(stats.getTokenizer() == null ? "" : stats.getTokenizer().getId()))
+            .append(",\"top_words\":[");
+        String separator = "";
+        for (AnalysisSnapshot.WordFrequency word : stats.getTopWords(top)) {
+            json.append(separator).append("{\"word\":").append(BatchCounter.jsonString(word.getWord()))
+                .append(",\"count\":").append(word.getCount()).append('}');
+            separator = ",";
+        }
+        return json.append("]}").toString();
+    }
+
+    private static String error(String message) {
+        return "{\"error\":" + BatchCounter.jsonString(message == null ? "" : message) + "}";
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = (json + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    // If the headers were already sent, the failure came while sending the body; the caller just closes
+    private static void respondError(HttpExchange exchange, int status, String json) throws IOException {
+        if (exchange.getResponseCode() == -1) {
+            respond(exchange, status, json);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> parameters = new HashMap<>();
+        if (query == null) {
+            return parameters;
+        }
+        for (String pair : query.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0) {
+                parameters.put(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return parameters;
+    }
+}
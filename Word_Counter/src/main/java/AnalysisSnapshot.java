@@ -0,0 +1,274 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The analysis of a document at one version, shared by every view of it.
+ *
+ * The totals are copied when the snapshot is taken. Anything derived from the word counts
+ * (the longest word, the average length, the ranking) is worked out the first time it is asked
+ * for and kept, so the labels, the analysis popup, the frequency dialog and exports of the same
+ * version never count or rank twice; phrase rankings likewise, per phrase length.
+ *
+ * The counts themselves are shared with whoever produced them rather than copied. Producers
+ * never change counts they have handed out ({@link IncrementalTextStats} copies its own before
+ * the next edit), so a snapshot stays valid after newer versions exist and can be read on any
+ * thread, such as by a modeless dialog or an export.
+ */
+public final class AnalysisSnapshot {
+    private final long version;
+    private final long words;
+    private final long characters;
+    private final long sentences;
+    private final long paragraphs;
+    private final int uniqueWords;
+    private final double readingTime;
+    private final double speakingTime;
+    private final Tokenizer tokenizer;
+    private final WordCountTable frequencies;
+    private final HeavyHitters heavyHitters;
+    private final PhraseTable phrases;
+    private final PositionIndex positions;
+    private final boolean uniqueWordsEstimated;
+    private HyperLogLog uniqueWordSketch;
+
+    private String longestWord;
+    private double averageWordLength = -1;
+    private final Ranking rankedWords = new Ranking();
+    // By phrase length
+    private final Ranking[] rankedPhrases;
+
+    /** {@code version} identifies the text {@code stats} describe, such as a document's edit count. */
+    public AnalysisSnapshot(TextStats stats, long version) {
+        this.version = version;
+        this.words = stats.getWords();
+        this.characters = stats.getCharacters();
+        this.sentences = stats.getSentences();
+        this.paragraphs = stats.getParagraphs();
+        this.uniqueWords = stats.getUniqueWords();
+        this.readingTime = stats.getReadingTime();
+        this.speakingTime = stats.getSpeakingTime();
+        this.tokenizer = stats.getTokenizer();
+        this.frequencies = stats.getFrequencies();
+        this.heavyHitters = stats.getHeavyHitters();
+        this.phrases = stats.getPhrases();
+        this.positions = stats.getPositions();
+        this.uniqueWordsEstimated = stats.isUniqueWordsEstimated();
+        this.uniqueWordSketch = stats.getUniqueWordSketch();
+        this.rankedPhrases = new Ranking[phrases == null ? 0 : phrases.getMaxLength() + 1];
+        for (int length = 2; length < rankedPhrases.length; length++) {
+            rankedPhrases[length] = new Ranking();
+        }
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public long getWords() {
+        return words;
+    }
+
+    public long getCharacters() {
+        return characters;
+    }
+
+    public long getSentences() {
+        return sentences;
+    }
+
+    public long getParagraphs() {
+        return paragraphs;
+    }
+
+    public int getUniqueWords() {
+        return uniqueWords;
+    }
+
+    public double getReadingTime() {
+        return readingTime;
+    }
+
+    public double getSpeakingTime() {
+        return speakingTime;
+    }
+
+    public Tokenizer getTokenizer() {
+        return tokenizer;
+    }
+
+    public double getWordsPerSentence() {
+        return sentences == 0 ? 0 : (double) words / sentences;
+    }
+
+    /** True if word counts are upper bounds from {@link HeavyHitters} rather than exact. */
+    public boolean isApproximate() {
+        return heavyHitters != null;
+    }
+
+    /** True if {@link #getUniqueWords()} is an estimate from a {@link HyperLogLog} sketch. */
+    public boolean isUniqueWordsEstimated() {
+        return uniqueWordsEstimated;
+    }
+
+    /**
+     * A sketch of the distinct words at {@code precision}, made from the word counts the first
+     * time it is asked for. Approximate snapshots can't be re-sketched: they return the sketch
+     * they were counted with, whatever its precision, or null if there was none.
+     */
+    public synchronized HyperLogLog getUniqueWordSketch(int precision) {
+        if (heavyHitters != null || uniqueWordSketch != null && uniqueWordSketch.getPrecision() == precision) {
+            return uniqueWordSketch;
+        }
+        PhaseMetrics.Span span = PerformanceMetrics.COUNT.start();
+        HyperLogLog sketch = new HyperLogLog(precision);
+        sketch.offerAll(frequencies);
+        span.end(frequencies.entryCount(), 0);
+        uniqueWordSketch = sketch;
+        return sketch;
+    }
+
+    /** Longest phrase counted, in words; 0 if phrases weren't counted. */
+    public int getPhraseLength() {
+        return phrases == null ? 0 : phrases.getMaxLength();
+    }
+
+    /** True if rare phrases were dropped while counting, so phrase counts are lower bounds. */
+    public boolean isPhrasesApproximate() {
+        return phrases != null && phrases.isApproximate();
+    }
+
+    /** Where each word occurs in the text of this version, or null if positions weren't indexed. */
+    public PositionIndex getPositions() {
+        return positions;
+    }
+
+    /** The counts this snapshot was taken of; shared and never changed, see the class comment. */
+    WordCountTable getFrequencyTable() {
+        return frequencies;
+    }
+
+    /** Phrase counts over the entries of {@link #getFrequencyTable()}, or null; shared likewise. */
+    PhraseTable getPhraseTable() {
+        return phrases;
+    }
+
+    public synchronized String getLongestWord() {
+        if (longestWord == null) {
+            longestWord = frequencies.longestWord();
+        }
+        return longestWord;
+    }
+
+    public synchronized double getAverageWordLength() {
+        if (averageWordLength < 0) {
+            averageWordLength = frequencies.averageLength();
+        }
+        return averageWordLength;
+    }
+
+    /** The {@code k} most frequent words, most frequent first. */
+    public synchronized List<WordFrequency> getTopWords(int k) {
+        if (rankedWords.covers(k)) {
+            return rankedWords.top(k);
+        }
+        PhaseMetrics.Span span = PerformanceMetrics.COUNT.start();
+        if (heavyHitters != null) {
+            int[] top = heavyHitters.topK(k);
+            List<WordFrequency> list = new ArrayList<>(top.length);
+            for (int counter : top) {
+                list.add(new WordFrequency(heavyHitters.word(counter), heavyHitters.count(counter), words));
+            }
+            rankedWords.rank(list, k);
+            span.end(heavyHitters.getCapacity(), 0);
+        } else {
+            int[] top = k == Integer.MAX_VALUE ? frequencies.sortedByCount() : frequencies.topK(k);
+            List<WordFrequency> list = new ArrayList<>(top.length);
+            for (int entry : top) {
+                list.add(new WordFrequency(frequencies.word(entry), frequencies.count(entry), words));
+            }
+            rankedWords.rank(list, k);
+            span.end(frequencies.entryCount(), 0);
+        }
+        return rankedWords.top(k);
+    }
+
+    /** Every counted word, most frequent first. */
+    public List<WordFrequency> getRankedWords() {
+        return getTopWords(Integer.MAX_VALUE);
+    }
+
+    /**
+     * The {@code k} most frequent phrases of {@code length} words, most frequent first, with
+     * their share of all phrases of that length. Empty if phrases of that length weren't counted.
+     */
+    public synchronized List<WordFrequency> getTopPhrases(int length, int k) {
+        if (length < 2 || length >= rankedPhrases.length) {
+            return Collections.emptyList();
+        }
+        Ranking ranking = rankedPhrases[length];
+        if (ranking.covers(k)) {
+            return ranking.top(k);
+        }
+        PhaseMetrics.Span span = PerformanceMetrics.COUNT.start();
+        int[] top = k == Integer.MAX_VALUE ? phrases.sortedByCount(length) : phrases.topK(length, k);
+        List<WordFrequency> list = new ArrayList<>(top.length);
+        long total = phrases.getTotal(length);
+        for (int entry : top) {
+            list.add(new WordFrequency(phrases.phrase(length, entry, frequencies), phrases.count(length, entry), total));
+        }
+        ranking.rank(list, k);
+        span.end(phrases.entryCount(length), 0);
+        return ranking.top(k);
+    }
+
+    /** Every counted phrase of {@code length} words, most frequent first. */
+    public List<WordFrequency> getRankedPhrases(int length) {
+        return getTopPhrases(length, Integer.MAX_VALUE);
+    }
+
+    // Ranked entries so far, a prefix of the full ranking unless all
+    private static final class Ranking {
+        private List<WordFrequency> list = Collections.emptyList();
+        private boolean all;
+
+        boolean covers(int k) {
+            return all || list.size() >= k;
+        }
+
+        List<WordFrequency> top(int k) {
+            return list.subList(0, Math.min(k, list.size()));
+        }
+
+        void rank(List<WordFrequency> ranked, int k) {
+            list = Collections.unmodifiableList(ranked);
+            all = ranked.size() < k;
+        }
+    }
+
+    /** A word or phrase and how often it occurs. */
+    public static final class WordFrequency {
+        private final String word;
+        private final long count;
+        private final double percentage;
+
+        WordFrequency(String word, long count, long totalWords) {
+            this.word = word;
+            this.count = count;
+            this.percentage = totalWords == 0 ? 0 : count * 100.0 / totalWords;
+        }
+
+        public String getWord() {
+            return word;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        /** Share of all words (or phrases of the same length), in percent. */
+        public double getPercentage() {
+            return percentage;
+        }
+    }
+}
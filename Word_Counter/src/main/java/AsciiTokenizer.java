@@ -0,0 +1,25 @@
+/**
+ * The word-break rules with a 128-entry class table. Exact for ASCII text; any other
+ * character is taken as a letter, which keeps accented words whole but doesn't split
+ * ideographs or drop non-ASCII punctuation.
+ */
+final class AsciiTokenizer extends WordBreakTokenizer {
+    AsciiTokenizer() {
+        super("ascii", Tables.ASCII, false);
+    }
+
+    @Override
+    public boolean covers(CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "ASCII";
+    }
+}
@@ -0,0 +1,328 @@
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Headless counting of whole directory trees, for pipelines and servers.
+ *
+ * Every supported file under the given paths is extracted with {@link FileTextExtractor} on a
+ * fixed pool of worker threads and streamed through a {@link TextAnalyzer}, so no file is held
+ * in memory as text. One record per file and a final total record are written to stdout as CSV
+ * or JSON Lines; records come out in completion order. Throughput is reported on stderr. If
+ * stdout fails (a closed pipe), no more files are counted and the batch exits with status 1.
+ *
+ * The corpus-wide unique word count merges every file's vocabulary, which grows with the
+ * corpus. With {@code --unique estimate} each worker keeps a {@link HyperLogLog} sketch instead
+ * (2^precision bytes, {@code --precision}), so any amount of text costs kilobytes; per-file
+ * counts stay exact, and the total's longest word is then left empty.
+ *
+ * Nothing here touches AWT or Swing.
+ */
+final class BatchCounter {
+    private static final String USAGE =
+        "Usage: WordCounterApp --batch [--format csv|jsonl] [--threads N] [--tokenizer auto|ascii|unicode|cjk]"
+            + " [--unique exact|estimate] [--precision 4-18] <file or directory>...";
+
+    private final boolean jsonLines;
+    private final Tokenizer tokenizer;
+    // Precision of the corpus unique word sketches, 0 to merge the vocabularies exactly
+    private final int uniquePrecision;
+    private final Writer out;
+    // First failure to write to out; records after it are dropped
+    private final AtomicReference<IOException> writeFailure = new AtomicReference<>();
+
+    // Totals over the files that were counted
+    private final AtomicLong files = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicLong words = new AtomicLong();
+    private final AtomicLong characters = new AtomicLong();
+    private final AtomicLong sentences = new AtomicLong();
+    private final AtomicLong paragraphs = new AtomicLong();
+
+    // Corpus vocabulary, one table per worker thread, merged at the end
+    private final List<WordCountTable> corpusTables = new ArrayList<>();
+    private final ThreadLocal<WordCountTable> corpus = ThreadLocal.withInitial(() -> {
+        WordCountTable table = new WordCountTable();
+        synchronized (corpusTables) {
+            corpusTables.add(table);
+        }
+        return table;
+    });
+    private final List<HyperLogLog> corpusSketches = new ArrayList<>();
+    private final ThreadLocal<HyperLogLog> corpusSketch;
+
+    private BatchCounter(boolean jsonLines, Tokenizer tokenizer, int uniquePrecision, Writer out) {
+        this.jsonLines = jsonLines;
+        this.tokenizer = tokenizer;
+        this.uniquePrecision = uniquePrecision;
+        this.out = out;
+        this.corpusSketch = ThreadLocal.withInitial(() -> {
+            HyperLogLog sketch = new HyperLogLog(uniquePrecision);
+            synchronized (corpusSketches) {
+                corpusSketches.add(sketch);
+            }
+            return sketch;
+        });
+    }
+
+    /** Runs the batch described by {@code args} (without the leading flag) and returns the exit status. */
+    static int run(String[] args) {
+        String format = "csv";
+        int threads = Runtime.getRuntime().availableProcessors();
+        String tokenizerId = "auto";
+        String unique = "exact";
+        int precision = HyperLogLog.DEFAULT_PRECISION;
+        List<Path> roots = new ArrayList<>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--format":
+                        format = args[++i];
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(args[++i]);
+                        break;
+                    case "--tokenizer":
+                        tokenizerId = args[++i];
+                        break;
+                    case "--unique":
+                        unique = args[++i];
+                        break;
+                    case "--precision":
+                        precision = Integer.parseInt(args[++i]);
+                        break;
+                    default:
+                        roots.add(Paths.get(args[i]));
+                        break;
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            roots.clear();
+        }
+        // Null means each file gets the tokenizer detected for it
+        Tokenizer tokenizer = Tokenizer.forId(tokenizerId);
+        if (roots.isEmpty() || threads <= 0 || !(format.equals("csv") || format.equals("jsonl"))
+                || (tokenizer == null && !tokenizerId.equals("auto"))
+                || !(unique.equals("exact") || unique.equals("estimate"))
+                || precision < HyperLogLog.MIN_PRECISION || precision > HyperLogLog.MAX_PRECISION) {
+            System.err.println(USAGE);
+            return 2;
+        }
+
+        Writer stdout = new BufferedWriter(new OutputStreamWriter(
+            new FileOutputStream(FileDescriptor.out), StandardCharsets.UTF_8), 1 << 16);
+        BatchCounter batch = new BatchCounter(format.equals("jsonl"), tokenizer,
+            unique.equals("estimate") ? precision : 0, stdout);
+        try {
+            batch.count(roots, threads);
+            stdout.flush();
+        } catch (IOException e) {
+            System.err.println("Batch failed: " + e.getMessage());
+            return 1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 1;
+        }
+        return batch.failed.get() == 0 ? 0 : 1;
+    }
+
+    private void count(List<Path> roots, int threads) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        // A full queue makes the walking thread count files itself, which holds the walk back
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(threads * 4), WorkerThreads.daemonThreads("batch"),
+            new ThreadPoolExecutor.CallerRunsPolicy());
+
+        if (!jsonLines) {
+            write("path,bytes,words,characters,sentences,paragraphs,unique_words,longest_word,error\n");
+        }
+        try {
+            for (Path root : roots) {
+                Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                        if (writeFailure.get() != null) {
+                            return FileVisitResult.TERMINATE;
+                        }
+                        if (attributes.isRegularFile() && FileTextExtractor.isSupported(file.toFile())) {
+                            pool.execute(() -> countFile(file.toFile()));
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFileFailed(Path file, IOException e) {
+                        failed.incrementAndGet();
+                        writeFailure(file.toString(), e);
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+            }
+        } finally {
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+        checkWritten();
+
+        WordCountTable vocabulary = new WordCountTable();
+        for (WordCountTable table : corpusTables) {
+            PhaseMetrics.Span span = PerformanceMetrics.COUNT.start();
+            vocabulary.merge(table, 1);
+            span.end(table.entryCount(), 0);
+        }
+        HyperLogLog sketch = null;
+        if (uniquePrecision > 0) {
+            sketch = new HyperLogLog(uniquePrecision);
+            for (HyperLogLog threadSketch : corpusSketches) {
+                sketch.merge(threadSketch);
+            }
+        }
+        double seconds = Math.max(1e-9, (System.nanoTime() - start) / 1e9);
+        double filesPerSecond = files.get() / seconds;
+        double megabytesPerSecond = bytes.get() / (1024.0 * 1024.0) / seconds;
+        writeTotal(vocabulary, sketch, seconds, filesPerSecond, megabytesPerSecond);
+        checkWritten();
+        System.err.printf(Locale.ROOT, "%d files (%d failed), %.1f MB in %.2f s: %.1f files/s, %.1f MB/s%n",
+            files.get(), failed.get(), bytes.get() / (1024.0 * 1024.0), seconds, filesPerSecond, megabytesPerSecond);
+        for (PhaseMetrics phase : PerformanceMetrics.phases()) {
+            if (phase.getCount() > 0) {
+                System.err.println("  " + phase);
+            }
+        }
+    }
+
+    private void countFile(File file) {
+        if (writeFailure.get() != null) {
+            return; // queued before output failed, nowhere to report it
+        }
+        TextAnalyzer analyzer = new TextAnalyzer(tokenizer);
+        TextStats stats;
+        try {
+            FileTextExtractor.extract(file, analyzer.asWriter());
+            stats = analyzer.finish();
+        } catch (IOException | RuntimeException e) {
+            failed.incrementAndGet();
+            writeFailure(file.getPath(), e);
+            return;
+        }
+
+        files.incrementAndGet();
+        bytes.addAndGet(file.length());
+        words.addAndGet(stats.getWords());
+        characters.addAndGet(stats.getCharacters());
+        sentences.addAndGet(stats.getSentences());
+        paragraphs.addAndGet(stats.getParagraphs());
+        if (uniquePrecision > 0) {
+            corpusSketch.get().offerAll(stats.getFrequencies());
+        } else {
+            corpus.get().merge(stats.getFrequencies(), 1);
+        }
+
+        if (jsonLines) {
+            write("{\"path\":" + jsonString(file.getPath())
+                + ",\"bytes\":" + file.length()
+                + ",\"words\":" + stats.getWords()
+                + ",\"characters\":" + stats.getCharacters()
+                + ",\"sentences\":" + stats.getSentences()
+                + ",\"paragraphs\":" + stats.getParagraphs()
+                + ",\"unique_words\":" + stats.getUniqueWords()
+                + ",\"longest_word\":" + jsonString(stats.getLongestWord()) + "}\n");
+        } else {
+            write(csvField(file.getPath()) + "," + file.length() + "," + stats.getWords() + ","
+                + stats.getCharacters() + "," + stats.getSentences() + "," + stats.getParagraphs() + ","
+                + stats.getUniqueWords() + "," + csvField(stats.getLongestWord()) + ",\n");
+        }
+    }
+
+    private void writeFailure(String path, Exception e) {
+        String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        if (jsonLines) {
+            write("{\"path\":" + jsonString(path) + ",\"error\":" + jsonString(message) + "}\n");
+        } else {
+            write(csvField(path) + ",,,,,,,," + csvField(message) + "\n");
+        }
+    }
+
+    private void writeTotal(WordCountTable vocabulary, HyperLogLog sketch, double seconds, double filesPerSecond,
+                            double megabytesPerSecond) {
+        long uniqueWords = sketch == null ? vocabulary.size() : sketch.estimate();
+        if (jsonLines) {
+            write(String.format(Locale.ROOT, "{\"total\":true,\"files\":%d,\"failed\":%d,\"bytes\":%d,"
+                    + "\"words\":%d,\"characters\":%d,\"sentences\":%d,\"paragraphs\":%d,"
+                    + "\"unique_words\":%d,%s\"longest_word\":%s,\"seconds\":%.3f,"
+                    + "\"files_per_second\":%.1f,\"mb_per_second\":%.1f}%n",
+                files.get(), failed.get(), bytes.get(), words.get(), characters.get(), sentences.get(),
+                paragraphs.get(), uniqueWords,
+                sketch == null ? "" : String.format(Locale.ROOT, "\"unique_words_error\":%.4f,", sketch.getErrorBound()),
+                jsonString(vocabulary.longestWord()), seconds, filesPerSecond, megabytesPerSecond));
+        } else {
+            write("TOTAL," + bytes.get() + "," + words.get() + "," + characters.get() + ","
+                + sentences.get() + "," + paragraphs.get() + "," + uniqueWords + ","
+                + csvField(vocabulary.longestWord()) + ",\n");
+        }
+    }
+
+    private void checkWritten() throws IOException {
+        IOException failure = writeFailure.get();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    // Called from the workers and the walker, so a failure is kept for count() rather than thrown
+    private void write(String record) {
+        synchronized (out) {
+            if (writeFailure.get() != null) {
+                return;
+            }
+            try {
+                out.write(record);
+            } catch (IOException e) {
+                writeFailure.set(e);
+            }
+        }
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    static String jsonString(String value) {
+        StringBuilder json = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        return json.append('"').toString();
+    }
+}
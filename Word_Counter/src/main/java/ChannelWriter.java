@@ -0,0 +1,173 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Buffered writer of UTF-8 text, decimal numbers and varints to a byte channel.
+ *
+ * Characters are encoded straight into one reused byte buffer, which goes to the channel
+ * whenever it fills up, so writing a row allocates nothing: no String, no encoder, no
+ * formatter. Meant for exports of millions of rows.
+ */
+final class ChannelWriter implements Closeable {
+    private static final int DEFAULT_BUFFER = 1 << 18;
+    // Longest encoding of one call's fixed-size part: a varint or a decimal long
+    private static final int MAX_NUMBER = 20;
+
+    private final WritableByteChannel channel;
+    private final byte[] buffer;
+    private final ByteBuffer view;
+    private int position;
+    private long written;
+
+    ChannelWriter(WritableByteChannel channel) {
+        this(channel, DEFAULT_BUFFER);
+    }
+
+    ChannelWriter(WritableByteChannel channel, int bufferSize) {
+        this.channel = channel;
+        this.buffer = new byte[Math.max(bufferSize, 64)];
+        this.view = ByteBuffer.wrap(buffer);
+    }
+
+    /** Bytes written so far, including ones still buffered. */
+    long getBytesWritten() {
+        return written + position;
+    }
+
+    ChannelWriter write(byte b) throws IOException {
+        if (position == buffer.length) {
+            drain();
+        }
+        buffer[position++] = b;
+        return this;
+    }
+
+    ChannelWriter write(char c) throws IOException {
+        encode(c, (char) 0, 0);
+        return this;
+    }
+
+    ChannelWriter write(CharSequence text) throws IOException {
+        for (int i = 0, length = text.length(); i < length; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80 && position < buffer.length) {
+                buffer[position++] = (byte) c;
+            } else {
+                i = encode(c, i + 1 < length ? text.charAt(i + 1) : 0, i);
+            }
+        }
+        return this;
+    }
+
+    /** Writes {@code chars[offset, offset + length)} as UTF-8. */
+    ChannelWriter write(char[] chars, int offset, int length) throws IOException {
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            char c = chars[i];
+            if (c < 0x80 && position < buffer.length) {
+                buffer[position++] = (byte) c;
+            } else {
+                i = encode(c, i + 1 < end ? chars[i + 1] : 0, i);
+            }
+        }
+        return this;
+    }
+
+    // Encodes c (and next, if they form a surrogate pair); returns the index of the last char used
+    private int encode(char c, char next, int index) throws IOException {
+        if (buffer.length - position < 4) {
+            drain();
+        }
+        if (c < 0x80) {
+            buffer[position++] = (byte) c;
+        } else if (c < 0x800) {
+            buffer[position++] = (byte) (0xC0 | c >> 6);
+            buffer[position++] = (byte) (0x80 | c & 0x3F);
+        } else if (Character.isHighSurrogate(c) && Character.isLowSurrogate(next)) {
+            int codePoint = Character.toCodePoint(c, next);
+            buffer[position++] = (byte) (0xF0 | codePoint >> 18);
+            buffer[position++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+            buffer[position++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+            buffer[position++] = (byte) (0x80 | codePoint & 0x3F);
+            return index + 1;
+        } else if (Character.isSurrogate(c)) {
+            buffer[position++] = '?'; // unpaired, as String.getBytes would write it
+        } else {
+            buffer[position++] = (byte) (0xE0 | c >> 12);
+            buffer[position++] = (byte) (0x80 | c >> 6 & 0x3F);
+            buffer[position++] = (byte) (0x80 | c & 0x3F);
+        }
+        return index;
+    }
+
+    /** Writes {@code value} in decimal. */
+    ChannelWriter writeDecimal(long value) throws IOException {
+        if (buffer.length - position < MAX_NUMBER) {
+            drain();
+        }
+        if (value < 0) {
+            if (value == Long.MIN_VALUE) {
+                return write(Long.toString(value));
+            }
+            buffer[position++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long rest = value / 10; rest != 0; rest /= 10) {
+            digits++;
+        }
+        int end = position + digits;
+        for (int i = end - 1; i >= position; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        position = end;
+        return this;
+    }
+
+    /** Writes {@code value} as an unsigned LEB128 varint, see {@link Varints}. */
+    ChannelWriter writeVarLong(long value) throws IOException {
+        if (buffer.length - position < MAX_NUMBER) {
+            drain();
+        }
+        position = Varints.writeVarLong(buffer, position, value);
+        return this;
+    }
+
+    ChannelWriter writeInt(int value) throws IOException {
+        if (buffer.length - position < 4) {
+            drain();
+        }
+        buffer[position++] = (byte) (value >>> 24);
+        buffer[position++] = (byte) (value >>> 16);
+        buffer[position++] = (byte) (value >>> 8);
+        buffer[position++] = (byte) value;
+        return this;
+    }
+
+    /** Sends everything buffered to the channel. */
+    void flush() throws IOException {
+        drain();
+    }
+
+    private void drain() throws IOException {
+        view.clear().limit(position);
+        while (view.hasRemaining()) {
+            channel.write(view);
+        }
+        written += position;
+        position = 0;
+    }
+
+    /** Flushes, then closes the channel. */
+    @Override
+    public void close() throws IOException {
+        try {
+            drain();
+        } finally {
+            channel.close();
+        }
+    }
+}
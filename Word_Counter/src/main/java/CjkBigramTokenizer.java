@@ -0,0 +1,16 @@
+/**
+ * Unicode word breaks, except that Chinese and Japanese text, which has no spaces between
+ * words, is tokenized into overlapping pairs of characters. Without a dictionary, bigrams
+ * are the usual compromise: most words of these languages are one or two characters long,
+ * so the frequent pairs are mostly real words. Each CJK character still counts as a word.
+ */
+final class CjkBigramTokenizer extends WordBreakTokenizer {
+    CjkBigramTokenizer() {
+        super("cjk", Tables.UNICODE, true);
+    }
+
+    @Override
+    public String toString() {
+        return "CJK bigrams";
+    }
+}
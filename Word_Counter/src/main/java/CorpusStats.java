@@ -0,0 +1,36 @@
+/**
+ * Totals and merged word counts over several separately analyzed files.
+ *
+ * Files are combined from their results rather than their text, so memory grows with the
+ * vocabulary, not with the size of the corpus. Safe to add to from several threads.
+ */
+public final class CorpusStats {
+    private final WordCountTable frequencies = new WordCountTable();
+    private int files;
+    private long words;
+    private long characters;
+    private long sentences;
+    private long paragraphs;
+
+    public synchronized void add(TextStats stats) {
+        files++;
+        words += stats.getWords();
+        characters += stats.getCharacters();
+        sentences += stats.getSentences();
+        paragraphs += stats.getParagraphs();
+        PhaseMetrics.Span span = PerformanceMetrics.COUNT.start();
+        frequencies.merge(stats.getFrequencies(), 1);
+        span.end(stats.getFrequencies().entryCount(), 0);
+    }
+
+    public synchronized int getFiles() {
+        return files;
+    }
+
+    /** A snapshot of the totals so far, with its own copy of the merged frequencies. */
+    public synchronized TextStats toStats() {
+        WordCountTable copy = new WordCountTable();
+        copy.merge(frequencies, 1);
+        return new TextStats(words, characters, sentences, paragraphs, copy, null);
+    }
+}
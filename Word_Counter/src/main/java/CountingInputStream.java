@@ -0,0 +1,42 @@
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reports the bytes actually read from the wrapped stream to an {@link ExtractionProgress}.
+ */
+final class CountingInputStream extends FilterInputStream {
+    private final ExtractionProgress progress;
+
+    CountingInputStream(InputStream in, ExtractionProgress progress) {
+        super(in);
+        this.progress = progress;
+    }
+
+    @Override
+    public int read() throws IOException {
+        progress.checkCancelled();
+        int b = super.read();
+        if (b >= 0) {
+            progress.advance(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        progress.checkCancelled();
+        int read = super.read(b, off, len);
+        if (read > 0) {
+            progress.advance(read);
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        progress.advance(skipped);
+        return skipped;
+    }
+}
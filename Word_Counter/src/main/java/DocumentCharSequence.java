@@ -0,0 +1,80 @@
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Segment;
+
+/**
+ * Read-only {@link CharSequence} view of a Swing {@link Document}.
+ *
+ * Characters are fetched a block at a time through a partial-return {@link Segment}, which
+ * points straight into the document's storage instead of copying it like getText() does.
+ * The view is only valid while the document is not modified.
+ */
+final class DocumentCharSequence implements CharSequence {
+    private static final int BLOCK_SIZE = 4096;
+
+    private final Document document;
+    private final int length;
+    private final Segment segment = new Segment();
+    private int blockStart;
+    private int blockEnd;
+
+    DocumentCharSequence(Document document) {
+        this.document = document;
+        this.length = document.getLength();
+        segment.setPartialReturn(true);
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < blockStart || index >= blockEnd) {
+            load(index);
+        }
+        return segment.array[segment.offset + index - blockStart];
+    }
+
+    private void load(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index " + index + ", length " + length);
+        }
+        // Center the block a little behind the index since callers also scan backwards
+        int start = Math.max(0, Math.min(index - BLOCK_SIZE / 4, length - BLOCK_SIZE));
+        if (start > index) {
+            start = index;
+        }
+        try {
+            document.getText(start, Math.min(BLOCK_SIZE, length - start), segment);
+        } catch (BadLocationException e) {
+            throw new IndexOutOfBoundsException(e.getMessage());
+        }
+        if (start + segment.count <= index) {
+            // Partial return stopped before the index (gap in the storage), read from the index
+            start = index;
+            try {
+                document.getText(start, Math.min(BLOCK_SIZE, length - start), segment);
+            } catch (BadLocationException e) {
+                throw new IndexOutOfBoundsException(e.getMessage());
+            }
+        }
+        blockStart = start;
+        blockEnd = start + segment.count;
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        StringBuilder builder = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            builder.append(charAt(i));
+        }
+        return builder;
+    }
+
+    @Override
+    public String toString() {
+        return subSequence(0, length).toString();
+    }
+}
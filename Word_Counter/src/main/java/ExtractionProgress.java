@@ -0,0 +1,62 @@
+import java.io.InterruptedIOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of reading a file, in bytes, shared between the reading thread and the UI.
+ *
+ * Readers report what they have consumed and call {@link #checkCancelled()} between chunks,
+ * so a cancelled read stops promptly even where thread interruption isn't noticed.
+ */
+public final class ExtractionProgress {
+    private final long startNanos = System.nanoTime();
+    private final AtomicLong done = new AtomicLong();
+    private volatile long total;
+    private volatile boolean cancelled;
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public long getDone() {
+        return done.get();
+    }
+
+    void advance(long bytes) {
+        done.addAndGet(bytes);
+    }
+
+    /** Sets the bytes done, for readers that know their absolute position. */
+    void set(long bytes) {
+        done.set(bytes);
+    }
+
+    public int getPercent() {
+        long total = this.total;
+        return total <= 0 ? 0 : (int) Math.min(100, done.get() * 100 / total);
+    }
+
+    public double getBytesPerSecond() {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        return seconds <= 0 ? 0 : done.get() / seconds;
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /** Throws if the read was cancelled or the reading thread interrupted. */
+    void checkCancelled() throws InterruptedIOException {
+        if (cancelled || Thread.currentThread().isInterrupted()) {
+            cancelled = true;
+            throw new InterruptedIOException("Cancelled");
+        }
+    }
+}
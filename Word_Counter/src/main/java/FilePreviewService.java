@@ -0,0 +1,109 @@
+import java.io.File;
+import java.io.InterruptedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import javax.swing.SwingUtilities;
+
+/**
+ * Previews of files for the file chooser, made in the background and remembered.
+ *
+ * A preview is the head of the file's text (see {@link FileTextExtractor#extractHead}), so
+ * selecting a large PDF or Word document costs a page or a few paragraphs, not a full parse.
+ * Only the latest request matters: asking for another file cancels the one in progress.
+ * Previews are cached by path, size and modification time, so going back and forth through
+ * a folder shows files already seen at once. Files that fail to read, such as locked files or ones
+ * on a share that is offline, are not cached, so selecting them again tries again.
+ */
+final class FilePreviewService {
+    static final int PREVIEW_CHARS = 2048;
+    static final String LOADING = "Loading preview...";
+    static final String UNAVAILABLE = "Cannot preview this file type";
+    static final String FAILED = "Cannot read this file";
+    private static final int CACHE_ENTRIES = 256;
+
+    private final ExecutorService executor = WorkerThreads.newExecutor("preview", 2);
+    // Least recently shown first
+    private final Map<String, String> cache = new LinkedHashMap<String, String>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > CACHE_ENTRIES;
+        }
+    };
+
+    // Touched on the EDT only
+    private Future<?> pending;
+    private ExtractionProgress pendingProgress;
+    private String pendingKey;
+
+    /**
+     * Shows the preview of {@code file} through {@code show} on the EDT: at once if it is
+     * cached, otherwise {@link #LOADING} first and the preview once it is ready, unless another
+     * preview has been asked for in between. Must be called on the EDT.
+     */
+    void request(File file, Consumer<String> show) {
+        cancel();
+        String key = keyOf(file);
+        String cached;
+        synchronized (cache) {
+            cached = cache.get(key);
+        }
+        if (cached != null) {
+            show.accept(cached);
+            return;
+        }
+        show.accept(LOADING);
+        ExtractionProgress progress = new ExtractionProgress();
+        pendingKey = key;
+        pendingProgress = progress;
+        pending = executor.submit(() -> {
+            String preview;
+            boolean cacheable = true;
+            try {
+                String head = FileTextExtractor.extractHead(file, PREVIEW_CHARS, progress);
+                preview = head.length() == PREVIEW_CHARS ? head + "..." : head;
+            } catch (InterruptedIOException e) {
+                return; // Superseded by another request
+            } catch (UnsupportedOperationException e) {
+                preview = UNAVAILABLE;
+            } catch (Exception | LinkageError e) {
+                preview = FAILED;
+                cacheable = false;
+            }
+            if (progress.isCancelled()) {
+                return;
+            }
+            if (cacheable) {
+                synchronized (cache) {
+                    cache.put(key, preview);
+                }
+            }
+            String shown = preview;
+            SwingUtilities.invokeLater(() -> {
+                if (key.equals(pendingKey)) {
+                    pendingKey = null;
+                    pending = null;
+                    pendingProgress = null;
+                    show.accept(shown);
+                }
+            });
+        });
+    }
+
+    /** Stops the preview in progress, if any; its result is dropped. */
+    void cancel() {
+        if (pending != null) {
+            pendingProgress.cancel();
+            pending.cancel(true);
+            pending = null;
+            pendingProgress = null;
+            pendingKey = null;
+        }
+    }
+
+    private static String keyOf(File file) {
+        return file.getAbsolutePath() + '\u0000' + file.length() + '\u0000' + file.lastModified();
+    }
+}
@@ -0,0 +1,103 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Extracts the text of supported files into a {@link Writer}.
+ *
+ * Plain text files are read as UTF-8. Text is written as it is read, so passing
+ * {@link TextAnalyzer#asWriter()} counts a file without ever holding its whole text in memory.
+ */
+public final class FileTextExtractor {
+    private FileTextExtractor() {
+    }
+
+    public static boolean isSupported(File file) {
+        switch (extensionOf(file)) {
+            case "txt":
+            case "pdf":
+            case "doc":
+            case "docx":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    public static void extract(File file, Writer out) throws IOException {
+        extract(file, out, new ExtractionProgress());
+    }
+
+    /**
+     * Extracts {@code file} into {@code out}, reporting bytes read to {@code progress} and
+     * stopping with an InterruptedIOException once it is cancelled. PDF and .doc progress is per
+     * page or paragraph.
+     */
+    public static void extract(File file, Writer out, ExtractionProgress progress) throws IOException {
+        String extension = extensionOf(file);
+        progress.setTotal(file.length());
+        PhaseMetrics.Span span = PerformanceMetrics.EXTRACT.start();
+        switch (extension) {
+            case "txt":
+                MappedTextReader.transfer(file, out, progress);
+                break;
+
+            case "pdf":
+                PdfTextExtractor.extract(file, out, progress);
+                break;
+
+            case "doc":
+            case "docx":
+                WordTextExtractor.extract(file, out, progress);
+                break;
+
+            default:
+                throw new UnsupportedOperationException("Unsupported file format: " + extension);
+        }
+        out.flush();
+        progress.set(file.length());
+        span.end(file.length(), 0);
+    }
+
+    /**
+     * Up to {@code limit} characters from the start of {@code file}, reading only as much of it
+     * as that takes: a few KB of a text file, the first page of a PDF, the first paragraphs of a
+     * Word document. Stops with an InterruptedIOException once {@code progress} is cancelled.
+     */
+    public static String extractHead(File file, int limit, ExtractionProgress progress) throws IOException {
+        progress.setTotal(file.length());
+        if (extensionOf(file).equals("txt")) {
+            // A UTF-8 char takes at most 3 bytes, or 4 for a surrogate pair
+            String head = MappedTextReader.head(file, limit * 3);
+            return head.length() > limit ? head.substring(0, limit) : head;
+        }
+        HeadLimitWriter out = new HeadLimitWriter(limit);
+        try {
+            switch (extensionOf(file)) {
+                case "pdf":
+                    PdfTextExtractor.extractFirstPages(file, 1, out, progress);
+                    break;
+
+                case "doc":
+                case "docx":
+                    WordTextExtractor.extract(file, out, progress);
+                    break;
+
+                default:
+                    throw new UnsupportedOperationException("Unsupported file format: " + extensionOf(file));
+            }
+        } catch (HeadLimitWriter.LimitReachedException e) {
+            // Everything needed has been read
+        }
+        return out.getHead();
+    }
+
+    static String extensionOf(File file) {
+        String name = file.getName();
+        int lastIndexOf = name.lastIndexOf(".");
+        if (lastIndexOf == -1) {
+            return ""; // Empty extension
+        }
+        return name.substring(lastIndexOf + 1).toLowerCase();
+    }
+}
@@ -0,0 +1,57 @@
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Passes everything through to another writer and keeps the first characters written.
+ */
+final class HeadCapturingWriter extends Writer {
+    private final Writer target;
+    private final StringBuilder head;
+    private final int limit;
+
+    HeadCapturingWriter(Writer target, int limit) {
+        this.target = target;
+        this.limit = limit;
+        this.head = new StringBuilder(Math.min(limit, 8192));
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        if (head.length() < limit) {
+            head.append(cbuf, off, Math.min(len, limit - head.length()));
+        }
+        target.write(cbuf, off, len);
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        if (head.length() < limit) {
+            head.append(str, off, off + Math.min(len, limit - head.length()));
+        }
+        target.write(str, off, len);
+    }
+
+    /** The first {@code limit} characters written. */
+    String getHead() {
+        return head.toString();
+    }
+
+    @Override
+    public Writer append(CharSequence csq, int start, int end) throws IOException {
+        if (head.length() < limit) {
+            head.append(csq, start, start + Math.min(end - start, limit - head.length()));
+        }
+        target.append(csq, start, end);
+        return this;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        target.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        target.close();
+    }
+}
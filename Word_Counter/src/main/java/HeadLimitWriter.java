@@ -0,0 +1,70 @@
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Keeps the first characters written and then stops the writer's producer, by throwing
+ * {@link LimitReachedException} from the write that fills it.
+ *
+ * Extractors write as they parse, so this ends a parse as soon as enough text is out
+ * instead of going through the rest of the file.
+ */
+final class HeadLimitWriter extends Writer {
+    private final StringBuilder head;
+    private final int limit;
+
+    HeadLimitWriter(int limit) {
+        this.limit = limit;
+        this.head = new StringBuilder(Math.min(limit, 8192));
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        head.append(cbuf, off, Math.min(len, limit - head.length()));
+        checkLimit();
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        append(str, off, off + len);
+    }
+
+    @Override
+    public Writer append(CharSequence csq, int start, int end) throws IOException {
+        head.append(csq, start, start + Math.min(end - start, limit - head.length()));
+        checkLimit();
+        return this;
+    }
+
+    private void checkLimit() throws LimitReachedException {
+        if (head.length() == limit) {
+            throw new LimitReachedException();
+        }
+    }
+
+    /** The first {@code limit} characters written, or all of them if there were fewer. */
+    String getHead() {
+        return head.toString();
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    /** Thrown once the limit is reached, so whatever is writing stops. */
+    static final class LimitReachedException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        LimitReachedException() {
+            super("Limit reached");
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this; // Control flow, not an error
+        }
+    }
+}
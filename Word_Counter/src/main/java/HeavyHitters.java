@@ -0,0 +1,227 @@
+import java.util.Arrays;
+
+/**
+ * Approximate top-K token counts in fixed memory (the Space-Saving algorithm).
+ *
+ * At most {@code capacity} tokens are tracked. When an untracked token arrives and the
+ * table is full, it takes over the counter with the smallest count, inheriting that count
+ * as its error. Every token whose true frequency exceeds total / capacity is guaranteed to
+ * be tracked, and each reported count overestimates the true one by at most its error.
+ */
+public final class HeavyHitters {
+    private final int capacity;
+    // Bits of a rank key that hold the counter, and the largest count the rest can rank
+    private final int counterBits;
+    private final long maxRankedCount;
+
+    // Per counter: key characters, hash, count and overestimation bound
+    private final char[][] keys;
+    private final int[] keyLengths;
+    private final int[] hashes;
+    private final long[] counts;
+    private final long[] errors;
+    private int size;
+    private long total;
+
+    // Hash index: slot -> counter + 1 (0 means empty), linear probing
+    private final int[] slots;
+
+    // Min-heap of counters by count, and each counter's position in it
+    private final int[] heap;
+    private final int[] heapIndex;
+
+    public HeavyHitters(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        counterBits = 32 - Integer.numberOfLeadingZeros(Math.max(capacity - 1, 1));
+        maxRankedCount = (1L << (63 - counterBits)) - 1;
+        keys = new char[capacity][];
+        keyLengths = new int[capacity];
+        hashes = new int[capacity];
+        counts = new long[capacity];
+        errors = new long[capacity];
+        slots = new int[Integer.highestOneBit(capacity * 4 - 1) << 1];
+        heap = new int[capacity];
+        heapIndex = new int[capacity];
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /** Total weight offered so far. */
+    public long getTotal() {
+        return total;
+    }
+
+    /** Adds {@code weight} occurrences of the token held in {@code buf[offset, offset + length)}. */
+    void offer(char[] buf, int offset, int length, int hash, long weight) {
+        add(buf, offset, length, hash, weight, 0);
+    }
+
+    /** Adds the counters of {@code other}, treating each as a weighted occurrence. */
+    public void merge(HeavyHitters other) {
+        for (int counter = 0; counter < other.size; counter++) {
+            add(other.keys[counter], 0, other.keyLengths[counter], other.hashes[counter],
+                other.counts[counter], other.errors[counter]);
+        }
+    }
+
+    private void add(char[] buf, int offset, int length, int hash, long weight, long error) {
+        total += weight;
+        int slot = find(buf, offset, length, hash);
+        int counter = slots[slot] - 1;
+        if (counter >= 0) {
+            counts[counter] += weight;
+            errors[counter] += error;
+            siftDown(heapIndex[counter]);
+            return;
+        }
+
+        if (size < capacity) {
+            counter = size;
+            heap[size] = counter;
+            heapIndex[counter] = size;
+            size++;
+            counts[counter] = weight;
+            errors[counter] = error;
+        } else {
+            // Evict the smallest counter and take over its count as the error bound
+            counter = heap[0];
+            removeFromIndex(counter);
+            errors[counter] = counts[counter] + error;
+            counts[counter] += weight;
+            slot = find(buf, offset, length, hash);
+        }
+        char[] key = keys[counter];
+        if (key == null || key.length < length) {
+            key = new char[Math.max(length, 16)];
+            keys[counter] = key;
+        }
+        System.arraycopy(buf, offset, key, 0, length);
+        keyLengths[counter] = length;
+        hashes[counter] = hash;
+        slots[slot] = counter + 1;
+        siftUp(heapIndex[counter]);
+        siftDown(heapIndex[counter]);
+    }
+
+    /**
+     * The {@code k} counters with the highest counts, highest first and lower counters first on
+     * ties. Uses a bounded heap of rank keys, as {@link WordCountTable#topK} does.
+     */
+    public int[] topK(int k) {
+        if (k <= 0) {
+            return new int[0];
+        }
+        // Max-heap on rank key: the root is the worst counter kept so far
+        long[] ranked = new long[Math.min(k, Math.max(size, 1))];
+        int kept = 0;
+        for (int counter = 0; counter < size; counter++) {
+            long key = rankKey(counter);
+            if (kept < ranked.length) {
+                ranked[kept] = key;
+                WordCountTable.siftUp(ranked, kept++);
+            } else if (key < ranked[0]) {
+                ranked[0] = key;
+                WordCountTable.siftDown(ranked, 0, kept);
+            }
+        }
+        Arrays.sort(ranked, 0, kept);
+        int[] top = new int[kept];
+        long counterMask = (1L << counterBits) - 1;
+        for (int i = 0; i < kept; i++) {
+            top[i] = (int) (ranked[i] & counterMask);
+        }
+        return top;
+    }
+
+    // Higher counts sort first, the counter breaks ties; counts beyond maxRankedCount rank together
+    private long rankKey(int counter) {
+        return (maxRankedCount - Math.min(counts[counter], maxRankedCount)) << counterBits | counter;
+    }
+
+    public String word(int counter) {
+        return new String(keys[counter], 0, keyLengths[counter]);
+    }
+
+    /** Estimated count; the true count lies in [count - error, count]. */
+    public long count(int counter) {
+        return counts[counter];
+    }
+
+    public long error(int counter) {
+        return errors[counter];
+    }
+
+    private int find(char[] buf, int offset, int length, int hash) {
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        while (true) {
+            int counter = slots[slot] - 1;
+            if (counter < 0) {
+                return slot;
+            }
+            if (hashes[counter] == hash && keyLengths[counter] == length
+                    && Arrays.equals(keys[counter], 0, length, buf, offset, offset + length)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    // Backward-shift deletion keeps linear probe chains intact without tombstones
+    private void removeFromIndex(int counter) {
+        int mask = slots.length - 1;
+        int slot = find(keys[counter], 0, keyLengths[counter], hashes[counter]);
+        int next = (slot + 1) & mask;
+        while (slots[next] != 0) {
+            int home = hashes[slots[next] - 1] & mask;
+            // Move the entry back if its home is not in the cyclic range (slot, next]
+            if (((next - home) & mask) >= ((next - slot) & mask)) {
+                slots[slot] = slots[next];
+                slot = next;
+            }
+            next = (next + 1) & mask;
+        }
+        slots[slot] = 0;
+    }
+
+    private void siftUp(int index) {
+        int counter = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (counts[heap[parent]] <= counts[counter]) {
+                break;
+            }
+            heap[index] = heap[parent];
+            heapIndex[heap[index]] = index;
+            index = parent;
+        }
+        heap[index] = counter;
+        heapIndex[counter] = index;
+    }
+
+    private void siftDown(int index) {
+        int counter = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && counts[heap[child + 1]] < counts[heap[child]]) {
+                child++;
+            }
+            if (counts[counter] <= counts[heap[child]]) {
+                break;
+            }
+            heap[index] = heap[child];
+            heapIndex[heap[index]] = index;
+            index = child;
+        }
+        heap[index] = counter;
+        heapIndex[counter] = index;
+    }
+}
@@ -0,0 +1,328 @@
+import javax.swing.text.AbstractDocument;
+import javax.swing.text.AttributeSet;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.DocumentFilter;
+
+/**
+ * Keeps text statistics for a Swing document up to date edit by edit.
+ *
+ * Every insert, remove or replace only re-counts a small window around the edit: the
+ * words it touches plus the next word, whose sentence and paragraph start depend on what
+ * precedes it. The window is counted once before the edit (and subtracted) and once after
+ * (and added), so typing costs O(edit size) instead of O(document size).
+ *
+ * Edits whose window is larger than {@link #setMaxWindow(int) the maximum window} (a big
+ * paste, loading a file) are not counted here; the totals are marked stale instead and
+ * are expected to be replaced by a full analysis through {@link #reset(TextStats, long)}.
+ *
+ * This is a {@link DocumentFilter} rather than a DocumentListener because the old text of
+ * a removal is gone by the time listeners are notified. Install it with
+ * {@link #install(AbstractDocument)} and listen to the document as usual
+ * to refresh the UI.
+ *
+ * With a phrase length (see {@link TextAnalyzer#countPhrases}) phrases are kept up to date too:
+ * the window then reaches that many words further, so every phrase with an edited word ends
+ * inside it, and is counted with the words before it as context.
+ *
+ * Positions (see {@link TextAnalyzer#indexPositions}) are not maintained: the ones of the last
+ * full analysis are kept until the next edit, then dropped.
+ *
+ * Counts handed out, by {@link #getStats()} or to {@link #reset(TextStats, long)}, are never
+ * changed again: the next edit copies them first and changes the copy, so whoever holds them
+ * can keep reading them on any thread. {@link #getTotals()} hands out nothing, so typing with
+ * only the totals on screen copies nothing.
+ *
+ * Windows are counted with the tokenizer of the last full analysis. Unless one is
+ * {@link #setTokenizer(Tokenizer) set}, inserting text that tokenizer doesn't cover (non-ASCII
+ * text into an ASCII document) marks the totals stale, so the next analysis picks again.
+ */
+public final class IncrementalTextStats extends DocumentFilter {
+    private static final int DEFAULT_MAX_WINDOW = 1 << 16;
+
+    private WordCountTable frequencies = new WordCountTable();
+    private PhraseTable phrases;
+    private int phraseLength;
+    // From the last full analysis, until the next edit
+    private PositionIndex positions;
+    // Frequencies and phrases are also held by someone else, copy before changing them
+    private boolean shared;
+    private long words;
+    private long characters;
+    private long sentences;
+    private long paragraphs;
+
+    private Tokenizer tokenizer;
+    private boolean tokenizerFixed;
+
+    private long version;
+    private boolean stale;
+    private int maxWindow = DEFAULT_MAX_WINDOW;
+    // Re-counted during the current edit, for PerformanceMetrics.EDIT
+    private long countedCharacters;
+    private long countedWords;
+
+    public static IncrementalTextStats install(AbstractDocument document) {
+        return install(document, 0);
+    }
+
+    /** Same as {@link #install(AbstractDocument)}, also counting phrases of up to {@code phraseLength} words. */
+    public static IncrementalTextStats install(AbstractDocument document, int phraseLength) {
+        IncrementalTextStats stats = new IncrementalTextStats();
+        if (phraseLength >= 2) {
+            stats.phraseLength = phraseLength;
+            stats.phrases = new PhraseTable(phraseLength);
+        }
+        stats.tokenizer = Tokenizer.detect(new DocumentCharSequence(document));
+        stats.apply(new DocumentCharSequence(document), 0, document.getLength(), 1);
+        stats.countedCharacters = 0;
+        stats.countedWords = 0;
+        document.setDocumentFilter(stats);
+        return stats;
+    }
+
+    public long getWords() {
+        return words;
+    }
+
+    public long getCharacters() {
+        return characters;
+    }
+
+    public long getSentences() {
+        return sentences;
+    }
+
+    public long getParagraphs() {
+        return paragraphs;
+    }
+
+    /** Number of edits made to the document since installation. */
+    public long getVersion() {
+        return version;
+    }
+
+    /** True while the totals don't reflect the document and a full analysis is needed. */
+    public boolean isStale() {
+        return stale;
+    }
+
+    /**
+     * Counts with {@code tokenizer} from now on, or with the one each full analysis chose if
+     * it is null. Marks the totals stale, as they were counted with the previous one.
+     */
+    public void setTokenizer(Tokenizer tokenizer) {
+        tokenizerFixed = tokenizer != null;
+        if (tokenizerFixed) {
+            this.tokenizer = tokenizer;
+        }
+        stale = true;
+    }
+
+    public Tokenizer getTokenizer() {
+        return tokenizer;
+    }
+
+    /** Largest window, in characters, that is re-counted on the EDT. */
+    public void setMaxWindow(int maxWindow) {
+        this.maxWindow = maxWindow;
+    }
+
+    /** Longest phrase counted, 0 if phrases aren't counted. */
+    public int getPhraseLength() {
+        return phraseLength;
+    }
+
+    /**
+     * Replaces the totals with a full analysis of the document as of {@code version}, which
+     * must have counted phrases of the same length as this.
+     * Returns false, changing nothing, if the document has been edited since.
+     */
+    public boolean reset(TextStats stats, long version) {
+        if (version != this.version) {
+            return false;
+        }
+        words = stats.getWords();
+        characters = stats.getCharacters();
+        sentences = stats.getSentences();
+        paragraphs = stats.getParagraphs();
+        frequencies = stats.getFrequencies();
+        phrases = stats.getPhrases();
+        positions = stats.getPositions();
+        shared = true;
+        if (!tokenizerFixed && stats.getTokenizer() != null) {
+            tokenizer = stats.getTokenizer();
+        }
+        stale = false;
+        return true;
+    }
+
+    /** The current totals and counts, which later edits leave as they are. */
+    public TextStats getStats() {
+        shared = true;
+        return new TextStats(words, characters, sentences, paragraphs, frequencies, tokenizer)
+            .withPhrases(phrases)
+            .withPositions(positions);
+    }
+
+    /** The current totals only; {@link TextStats#getFrequencies()} is null. */
+    public TextStats getTotals() {
+        return new TextStats(words, characters, sentences, paragraphs, null, tokenizer);
+    }
+
+    @Override
+    public void insertString(FilterBypass fb, int offset, String string, AttributeSet attr)
+            throws BadLocationException {
+        long start = System.nanoTime();
+        long allocated = PerformanceMetrics.threadAllocatedBytes();
+        checkCovered(string);
+        int[] window = retract(fb.getDocument(), offset, offset);
+        super.insertString(fb, offset, string, attr);
+        restore(fb.getDocument(), window, string.length());
+        endEdit(start, allocated);
+    }
+
+    @Override
+    public void remove(FilterBypass fb, int offset, int length) throws BadLocationException {
+        long start = System.nanoTime();
+        long allocated = PerformanceMetrics.threadAllocatedBytes();
+        int[] window = retract(fb.getDocument(), offset, offset + length);
+        super.remove(fb, offset, length);
+        restore(fb.getDocument(), window, -length);
+        endEdit(start, allocated);
+    }
+
+    @Override
+    public void replace(FilterBypass fb, int offset, int length, String text, AttributeSet attrs)
+            throws BadLocationException {
+        long start = System.nanoTime();
+        long allocated = PerformanceMetrics.threadAllocatedBytes();
+        int inserted = text == null ? 0 : text.length();
+        if (text != null) {
+            checkCovered(text);
+        }
+        int[] window = retract(fb.getDocument(), offset, offset + length);
+        super.replace(fb, offset, length, text, attrs);
+        restore(fb.getDocument(), window, inserted - length);
+        endEdit(start, allocated);
+    }
+
+    private void endEdit(long startNanos, long startAllocated) {
+        PerformanceMetrics.EDIT.record(System.nanoTime() - startNanos, countedCharacters, countedWords,
+            PerformanceMetrics.threadAllocatedBytes() - startAllocated);
+        countedCharacters = 0;
+        countedWords = 0;
+    }
+
+    private void checkCovered(String inserted) {
+        if (!tokenizerFixed && !tokenizer.covers(inserted)) {
+            stale = true;
+        }
+    }
+
+    // Subtracts the window around [from, to) before an edit
+    private int[] retract(Document document, int from, int to) {
+        version++;
+        positions = null;
+        if (stale || to - from > maxWindow) {
+            stale = true;
+            return null;
+        }
+        int[] window = window(document, from, to, phraseLength, maxWindow);
+        if (window == null) {
+            stale = true;
+            return null;
+        }
+        apply(new DocumentCharSequence(document), window[0], window[1], -1);
+        return window;
+    }
+
+    // Adds the window back after an edit that changed its length by delta
+    private void restore(Document document, int[] window, int delta) {
+        if (window == null) {
+            return;
+        }
+        if (window[1] + delta - window[0] > maxWindow) {
+            stale = true;
+            return;
+        }
+        apply(new DocumentCharSequence(document), window[0], window[1] + delta, 1);
+    }
+
+    /**
+     * Range that has to be re-counted for an edit of {@code [from, to)}: back to the start of
+     * the word containing {@code from}, forward to the end of the word containing {@code to},
+     * then over the following whitespace and one more word, and as many more words as a
+     * phrase has after its first. Null if it is longer than {@code maxWindow}, or if the words
+     * before it that phrases are counted with reach further back than that; scanning stops
+     * there, so text without spaces costs no more than the window.
+     */
+    private static int[] window(Document document, int from, int to, int phraseLength, int maxWindow) {
+        DocumentCharSequence text = new DocumentCharSequence(document);
+        int floor = Math.max(0, to - maxWindow);
+        int start = from;
+        while (start > floor && !TextAnalyzer.isWhitespace(text.charAt(start - 1))) {
+            start--;
+        }
+        if (start > 0 && !TextAnalyzer.isWhitespace(text.charAt(start - 1))) {
+            return null;
+        }
+        // One past the longest window, so reaching it means the window is too long
+        int limit = Math.min(text.length(), start + maxWindow + 1);
+        int end = to;
+        while (end < limit && !TextAnalyzer.isWhitespace(text.charAt(end))) {
+            end++;
+        }
+        while (end < limit && TextAnalyzer.isWhitespace(text.charAt(end))) {
+            end++;
+        }
+        while (end < limit && !TextAnalyzer.isWhitespace(text.charAt(end))) {
+            end++;
+        }
+        if (phraseLength > 1) {
+            end = TextAnalyzer.skipWordsForward(text, end, phraseLength - 1, limit);
+            // Counting the window reads this far back first (TextAnalyzer.resumingAt)
+            int primeFloor = Math.max(0, start - maxWindow);
+            int primed = TextAnalyzer.skipWordsBackward(text, start, phraseLength - 1, primeFloor);
+            if (primed == primeFloor && primeFloor > 0) {
+                return null;
+            }
+        }
+        if (end - start > maxWindow) {
+            return null;
+        }
+        return new int[]{start, end};
+    }
+
+    private void apply(CharSequence text, int start, int end, int sign) {
+        if (shared) {
+            unshare();
+        }
+        TextStats delta = TextAnalyzer.resumingAt(text, start, tokenizer, phraseLength).untimed()
+            .feed(text, start, end).finish();
+        countedCharacters += end - start;
+        countedWords += delta.getWords();
+        words += sign * delta.getWords();
+        characters += sign * delta.getCharacters();
+        sentences += sign * delta.getSentences();
+        paragraphs += sign * delta.getParagraphs();
+        if (phrases != null && delta.getPhrases() != null) {
+            phrases.merge(delta.getPhrases(), frequencies.mergeEntries(delta.getFrequencies(), sign), sign);
+        } else {
+            frequencies.merge(delta.getFrequencies(), sign);
+        }
+    }
+
+    private void unshare() {
+        // An empty table takes over every entry under the same index, so phrases still refer to it
+        WordCountTable copy = new WordCountTable();
+        int[] entryMap = copy.mergeEntries(frequencies, 1);
+        if (phrases != null) {
+            PhraseTable phrasesCopy = new PhraseTable(phrases.getMaxLength());
+            phrasesCopy.merge(phrases, entryMap, 1);
+            phrases = phrasesCopy;
+        }
+        frequencies = copy;
+        shared = false;
+    }
+}
@@ -0,0 +1,265 @@
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.FlowLayout;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Insets;
+import java.awt.Rectangle;
+import java.nio.charset.StandardCharsets;
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JComponent;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTextField;
+import javax.swing.Scrollable;
+import javax.swing.SwingConstants;
+import javax.swing.SwingWorker;
+
+/**
+ * Read-only view of a {@link MappedTextFile}, for files too large for a JTextArea.
+ *
+ * Nothing is loaded up front: each paint decodes just the lines inside the clip, so opening
+ * and scrolling cost the same for a 1 MB file as for a 10 GB one. Lines are not wrapped and
+ * are cut at {@link MappedTextFile#MAX_LINE_CHARS}. The find bar searches the mapped bytes
+ * off the EDT, ignoring the case of ASCII letters.
+ */
+final class LargeTextViewer extends JPanel {
+    private static final long serialVersionUID = 1L;
+
+    private final LineView view = new LineView();
+    private final JScrollPane scrollPane = new JScrollPane(view);
+    private final JTextField findField = new JTextField(20);
+    private final JLabel findStatus = new JLabel(" ");
+    private MappedTextFile text;
+    private SwingWorker<Long, Void> search;
+
+    // Current match, as a byte offset and its place on screen
+    private long matchPosition = -1;
+    private int matchLine = -1;
+    private int matchColumn;
+    private int matchLength;
+
+    LargeTextViewer() {
+        super(new BorderLayout());
+        JButton nextButton = new JButton("Next");
+        JButton previousButton = new JButton("Previous");
+        nextButton.addActionListener(e -> find(true));
+        previousButton.addActionListener(e -> find(false));
+        findField.addActionListener(e -> find(true));
+
+        JPanel findBar = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 2));
+        findBar.add(new JLabel("Find:"));
+        findBar.add(findField);
+        findBar.add(previousButton);
+        findBar.add(nextButton);
+        findBar.add(findStatus);
+        add(findBar, BorderLayout.NORTH);
+        add(scrollPane, BorderLayout.CENTER);
+        scrollPane.setBorder(BorderFactory.createEmptyBorder());
+    }
+
+    void setText(MappedTextFile text) {
+        cancelSearch();
+        this.text = text;
+        matchPosition = -1;
+        matchLine = -1;
+        findStatus.setText(String.format("%,d lines", text.lineCount()));
+        view.revalidate();
+        view.scrollRectToVisible(new Rectangle(0, 0, 1, 1));
+        view.repaint();
+    }
+
+    /** The file shown, or null. */
+    MappedTextFile getText() {
+        return text;
+    }
+
+    /** Drops the file, so its mapping can be released. */
+    void clear() {
+        cancelSearch();
+        text = null;
+        view.revalidate();
+        view.repaint();
+    }
+
+    void setColors(Color background, Color foreground) {
+        view.setBackground(background);
+        view.setForeground(foreground);
+    }
+
+    @Override
+    public void setFont(Font font) {
+        super.setFont(font);
+        if (view != null) {
+            view.setFont(font);
+        }
+    }
+
+    /** Highlights the {@code length} characters at byte offset {@code position} and scrolls to them. */
+    void showOccurrence(long position, int length) {
+        if (text == null) {
+            return;
+        }
+        cancelSearch();
+        matchPosition = position;
+        matchLine = text.lineOf(position);
+        matchColumn = text.column(position);
+        matchLength = length;
+        findStatus.setText(String.format("Line %,d", matchLine + 1));
+        showMatch();
+    }
+
+    private void find(boolean forward) {
+        if (text == null || findField.getText().isEmpty()) {
+            return;
+        }
+        cancelSearch();
+        MappedTextFile searched = text;
+        byte[] needle = findField.getText().getBytes(StandardCharsets.UTF_8);
+        long from;
+        if (matchPosition >= 0) {
+            from = forward ? matchPosition + 1 : matchPosition;
+        } else {
+            int topLine = view.getVisibleRect().y / view.lineHeight();
+            from = searched.lineStart(Math.min(topLine, searched.lineCount() - 1));
+        }
+        findStatus.setText("Searching...");
+        search = new SwingWorker<Long, Void>() {
+            @Override
+            protected Long doInBackground() {
+                return searched.find(needle, from, forward);
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled() || searched != text) {
+                    return;
+                }
+                try {
+                    long position = get();
+                    if (position < 0) {
+                        findStatus.setText("Not found");
+                        return;
+                    }
+                    matchPosition = position;
+                    matchLine = searched.lineOf(position);
+                    matchColumn = searched.column(position);
+                    matchLength = findField.getText().length();
+                    findStatus.setText(String.format("Line %,d", matchLine + 1));
+                    showMatch();
+                } catch (Exception ex) {
+                    findStatus.setText("Search failed");
+                }
+            }
+        };
+        search.execute();
+    }
+
+    private void showMatch() {
+        FontMetrics metrics = view.getFontMetrics(view.getFont());
+        Insets insets = view.getInsets();
+        int x = insets.left + metrics.charWidth('m') * matchColumn;
+        int y = insets.top + matchLine * view.lineHeight();
+        // Leave some context around the match
+        Rectangle visible = view.getVisibleRect();
+        view.scrollRectToVisible(new Rectangle(Math.max(0, x - visible.width / 2),
+            Math.max(0, y - visible.height / 2), visible.width, visible.height));
+        view.repaint();
+    }
+
+    private void cancelSearch() {
+        if (search != null) {
+            search.cancel(true);
+            search = null;
+        }
+    }
+
+    /** Paints only the lines inside the clip. */
+    private final class LineView extends JComponent implements Scrollable {
+        private static final long serialVersionUID = 1L;
+
+        LineView() {
+            setOpaque(true);
+            setFont(new Font(Font.MONOSPACED, Font.PLAIN, 14));
+            setBorder(BorderFactory.createEmptyBorder(5, 8, 5, 8));
+        }
+
+        int lineHeight() {
+            return getFontMetrics(getFont()).getHeight();
+        }
+
+        @Override
+        public Dimension getPreferredSize() {
+            Insets insets = getInsets();
+            if (text == null) {
+                return new Dimension(insets.left + insets.right, insets.top + insets.bottom);
+            }
+            FontMetrics metrics = getFontMetrics(getFont());
+            long width = metrics.charWidth('m') * Math.min(text.longestLine(), MappedTextFile.MAX_LINE_CHARS);
+            long height = (long) text.lineCount() * metrics.getHeight();
+            return new Dimension((int) Math.min(Integer.MAX_VALUE / 2, width + insets.left + insets.right),
+                (int) Math.min(Integer.MAX_VALUE / 2, height + insets.top + insets.bottom));
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            Rectangle clip = g.getClipBounds();
+            g.setColor(getBackground());
+            g.fillRect(clip.x, clip.y, clip.width, clip.height);
+            if (text == null) {
+                return;
+            }
+            FontMetrics metrics = g.getFontMetrics(getFont());
+            Insets insets = getInsets();
+            int lineHeight = metrics.getHeight();
+            int first = Math.max(0, (clip.y - insets.top) / lineHeight);
+            int last = Math.min(text.lineCount() - 1, (clip.y + clip.height - insets.top) / lineHeight);
+            g.setFont(getFont());
+            for (int line = first; line <= last; line++) {
+                int y = insets.top + line * lineHeight;
+                // Tabs and other controls have no glyph; a space keeps columns aligned with the text
+                String content = text.line(line).replace('\t', ' ');
+                if (line == matchLine) {
+                    int x = insets.left + metrics.stringWidth(content.substring(0, Math.min(matchColumn, content.length())));
+                    int end = Math.min(content.length(), matchColumn + matchLength);
+                    int width = matchColumn < end ? metrics.stringWidth(content.substring(matchColumn, end)) : 0;
+                    g.setColor(new Color(255, 200, 0, 160));
+                    g.fillRect(x, y, width, lineHeight);
+                }
+                g.setColor(getForeground());
+                g.drawString(content, insets.left, y + metrics.getAscent());
+            }
+        }
+
+        @Override
+        public Dimension getPreferredScrollableViewportSize() {
+            return new Dimension(600, 400);
+        }
+
+        @Override
+        public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+            return orientation == SwingConstants.VERTICAL ? lineHeight() : getFontMetrics(getFont()).charWidth('m') * 4;
+        }
+
+        @Override
+        public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+            return orientation == SwingConstants.VERTICAL
+                ? Math.max(lineHeight(), visibleRect.height - lineHeight())
+                : visibleRect.width / 2;
+        }
+
+        @Override
+        public boolean getScrollableTracksViewportWidth() {
+            return getParent() != null && getPreferredSize().width < getParent().getWidth();
+        }
+
+        @Override
+        public boolean getScrollableTracksViewportHeight() {
+            return getParent() != null && getPreferredSize().height < getParent().getHeight();
+        }
+    }
+}
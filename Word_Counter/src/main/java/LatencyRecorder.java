@@ -0,0 +1,62 @@
+import java.util.Arrays;
+
+/**
+ * Keeps the most recent latency samples and counts how many exceeded a budget.
+ */
+public final class LatencyRecorder {
+    private final long[] samples;
+    private final long budgetNanos;
+    private int next;
+    private long count;
+    private long overBudget;
+    private long max;
+
+    public LatencyRecorder(int capacity, long budgetNanos) {
+        this.samples = new long[capacity];
+        this.budgetNanos = budgetNanos;
+    }
+
+    public synchronized void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        count++;
+        if (nanos > budgetNanos) {
+            overBudget++;
+        }
+        if (nanos > max) {
+            max = nanos;
+        }
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    /** Number of samples, ever, that took longer than the budget. */
+    public synchronized long getOverBudget() {
+        return overBudget;
+    }
+
+    public synchronized long getMaxNanos() {
+        return max;
+    }
+
+    /** Percentile (0-100) over the retained samples, in nanoseconds. */
+    public synchronized long percentileNanos(double percentile) {
+        int size = (int) Math.min(count, samples.length);
+        if (size == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * size) - 1;
+        return sorted[Math.max(0, Math.min(size - 1, index))];
+    }
+
+    @Override
+    public String toString() {
+        return String.format("n=%d p50=%.2fms p99=%.2fms max=%.2fms over budget=%d",
+            getCount(), percentileNanos(50) / 1e6, percentileNanos(99) / 1e6,
+            getMaxNanos() / 1e6, getOverBudget());
+    }
+}
@@ -0,0 +1,259 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A read-only UTF-8 text file, memory-mapped, with an index of where its lines start.
+ *
+ * Only every {@value #LINES_PER_CHECKPOINT}th line start is kept, so the index of a file with
+ * millions of lines stays a few megabytes; a line is found by scanning forward from its
+ * checkpoint. Files are mapped in {@value #SEGMENT_SIZE}-byte segments, so there is no 2 GB
+ * limit. Lines are decoded only when asked for.
+ *
+ * The same scan counts characters, as the reader decodes them (a supplementary character is
+ * two), at every {@value #CHARS_BLOCK_SIZE}-byte block, so a character position from an
+ * analysis of the file is turned into a byte offset by scanning at most one block.
+ */
+final class MappedTextFile {
+    private static final int SEGMENT_SHIFT = 30;
+    static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT;
+    private static final int LINES_PER_CHECKPOINT = 64;
+    private static final int CHARS_BLOCK_SHIFT = 16;
+    static final int CHARS_BLOCK_SIZE = 1 << CHARS_BLOCK_SHIFT;
+    // Longer lines are cut for display
+    static final int MAX_LINE_CHARS = 4096;
+    // Bytes searched between checks for interruption
+    private static final long FIND_CHECK_INTERVAL = 1 << 20;
+
+    private final File file;
+    private final long size;
+    private final MappedByteBuffer[] segments;
+    private final long textStart;
+    private long[] checkpoints = new long[1024];
+    private int lineCount;
+    private long longestLine;
+    // Characters before the start of each block
+    private long[] blockChars;
+
+    private MappedTextFile(File file, MappedByteBuffer[] segments, long size) {
+        this.file = file;
+        this.segments = segments;
+        this.size = size;
+        this.textStart = size >= 3 && byteAt(0) == (byte) 0xEF && byteAt(1) == (byte) 0xBB
+            && byteAt(2) == (byte) 0xBF ? 3 : 0;
+    }
+
+    /** Maps {@code file} and indexes its lines, checking {@code progress} for cancellation. */
+    static MappedTextFile open(File file, ExtractionProgress progress) throws IOException {
+        MappedByteBuffer[] segments;
+        long size;
+        // The mappings stay valid after the channel is closed
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            size = channel.size();
+            segments = new MappedByteBuffer[(int) ((size + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT)];
+            for (int i = 0; i < segments.length; i++) {
+                long start = (long) i << SEGMENT_SHIFT;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT_SIZE, size - start));
+            }
+        }
+        MappedTextFile text = new MappedTextFile(file, segments, size);
+        text.index(progress);
+        return text;
+    }
+
+    private void index(ExtractionProgress progress) throws IOException {
+        long lineStart = textStart;
+        checkpoints[0] = lineStart;
+        int lines = 1;
+        blockChars = new long[(int) (size >>> CHARS_BLOCK_SHIFT) + 1];
+        // The byte order mark is a character the reader skips
+        long chars = textStart > 0 ? -1 : 0;
+        for (int s = 0; s < segments.length; s++) {
+            MappedByteBuffer segment = segments[s];
+            long segmentStart = (long) s << SEGMENT_SHIFT;
+            int limit = segment.limit();
+            for (int i = 0; i < limit; i++) {
+                if ((i & (CHARS_BLOCK_SIZE - 1)) == 0) {
+                    blockChars[(int) ((segmentStart + i) >>> CHARS_BLOCK_SHIFT)] = chars;
+                    if ((i & 0xFFFFF) == 0) {
+                        progress.checkCancelled();
+                    }
+                }
+                byte b = segment.get(i);
+                if ((b & 0xC0) != 0x80) {
+                    chars += (b & 0xF8) == 0xF0 ? 2 : 1;
+                }
+                if (b == '\n') {
+                    long next = segmentStart + i + 1;
+                    longestLine = Math.max(longestLine, next - 1 - lineStart);
+                    lineStart = next;
+                    if (lines % LINES_PER_CHECKPOINT == 0) {
+                        int checkpoint = lines / LINES_PER_CHECKPOINT;
+                        if (checkpoint == checkpoints.length) {
+                            checkpoints = Arrays.copyOf(checkpoints, checkpoint * 2);
+                        }
+                        checkpoints[checkpoint] = lineStart;
+                    }
+                    lines++;
+                }
+            }
+        }
+        longestLine = Math.max(longestLine, size - lineStart);
+        lineCount = lines;
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    long size() {
+        return size;
+    }
+
+    int lineCount() {
+        return lineCount;
+    }
+
+    /** Length in bytes of the longest line, for sizing the view. */
+    long longestLine() {
+        return longestLine;
+    }
+
+    /** Byte offset where {@code line} starts. */
+    long lineStart(int line) {
+        long position = checkpoints[line / LINES_PER_CHECKPOINT];
+        for (int skip = line % LINES_PER_CHECKPOINT; skip > 0; skip--) {
+            position = lineEnd(position) + 1;
+        }
+        return position;
+    }
+
+    /** Offset of the newline ending the line that contains {@code position}, or the file size. */
+    long lineEnd(long position) {
+        while (position < size && byteAt(position) != '\n') {
+            position++;
+        }
+        return position;
+    }
+
+    /** The line containing byte {@code position}. */
+    int lineOf(long position) {
+        int checkpoint = Arrays.binarySearch(checkpoints, 0, (lineCount - 1) / LINES_PER_CHECKPOINT + 1, position);
+        if (checkpoint < 0) {
+            checkpoint = -checkpoint - 2;
+        }
+        int line = checkpoint * LINES_PER_CHECKPOINT;
+        long start = checkpoints[checkpoint];
+        while (true) {
+            long end = lineEnd(start);
+            if (position <= end || end >= size) {
+                return line;
+            }
+            start = end + 1;
+            line++;
+        }
+    }
+
+    /** The text of {@code line} without its line terminator, cut at {@link #MAX_LINE_CHARS}. */
+    String line(int line) {
+        long start = lineStart(line);
+        return decode(start, lineEnd(start));
+    }
+
+    /** Characters between the start of {@code position}'s line and {@code position}. */
+    int column(long position) {
+        return decode(lineStart(lineOf(position)), position).length();
+    }
+
+    private String decode(long start, long end) {
+        if (end > start && byteAt(end - 1) == '\r') {
+            end--;
+        }
+        // A UTF-8 character takes at most 4 bytes
+        int length = (int) Math.min(end - start, MAX_LINE_CHARS * 4L);
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = byteAt(start + i);
+        }
+        String text = new String(bytes, StandardCharsets.UTF_8);
+        return text.length() > MAX_LINE_CHARS ? text.substring(0, MAX_LINE_CHARS) : text;
+    }
+
+    /** Byte offset of the character at {@code position}, or the file size if there are fewer. */
+    long byteOffset(long position) {
+        int block = Arrays.binarySearch(blockChars, position);
+        if (block < 0) {
+            block = -block - 2;
+        }
+        long chars = blockChars[block];
+        for (long offset = (long) block << CHARS_BLOCK_SHIFT; offset < size; offset++) {
+            byte b = byteAt(offset);
+            // Continuation bytes belong to the character before
+            if ((b & 0xC0) != 0x80) {
+                chars += (b & 0xF8) == 0xF0 ? 2 : 1;
+                if (chars > position) {
+                    return offset;
+                }
+            }
+        }
+        return size;
+    }
+
+    /** The text between byte offsets {@code start} and {@code end}, each moved forward to the start of a character. */
+    String excerpt(long start, long end) {
+        start = Math.max(start, textStart);
+        while (start < size && (byteAt(start) & 0xC0) == 0x80) {
+            start++;
+        }
+        end = Math.min(end, size);
+        while (end < size && (byteAt(end) & 0xC0) == 0x80) {
+            end++;
+        }
+        return start < end ? decode(start, end) : "";
+    }
+
+    /**
+     * Byte offset of the next occurrence of {@code needle} starting at or after {@code from}
+     * (or, backwards, starting before it), or -1. ASCII letters match regardless of case.
+     * Gives up, also returning -1, once the thread is interrupted, as a cancelled search is.
+     */
+    long find(byte[] needle, long from, boolean forward) {
+        if (needle.length == 0 || needle.length > size - textStart) {
+            return -1;
+        }
+        long last = size - needle.length;
+        long position = forward ? Math.max(from, textStart) : Math.min(from - 1, last);
+        byte first = foldCase(needle[0]);
+        while (forward ? position <= last : position >= textStart) {
+            if ((position & (FIND_CHECK_INTERVAL - 1)) == 0 && Thread.interrupted()) {
+                return -1;
+            }
+            if (foldCase(byteAt(position)) == first && matches(needle, position)) {
+                return position;
+            }
+            position += forward ? 1 : -1;
+        }
+        return -1;
+    }
+
+    private boolean matches(byte[] needle, long position) {
+        for (int i = 1; i < needle.length; i++) {
+            if (foldCase(byteAt(position + i)) != foldCase(needle[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte foldCase(byte b) {
+        return b >= 'A' && b <= 'Z' ? (byte) (b + ('a' - 'A')) : b;
+    }
+
+    private byte byteAt(long position) {
+        return segments[(int) (position >>> SEGMENT_SHIFT)].get((int) (position & (SEGMENT_SIZE - 1)));
+    }
+}
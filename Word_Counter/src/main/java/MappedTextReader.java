@@ -0,0 +1,187 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads UTF-8 text files through memory-mapped windows.
+ *
+ * Files are mapped {@value #WINDOW_SIZE} bytes at a time, so files larger than 2 GB work by
+ * sliding the mapping. Each block that is pure ASCII is handed to the writer as a
+ * {@link CharSequence} view over the mapped bytes via {@link Writer#append(CharSequence, int, int)},
+ * without decoding; writers that count (see {@link TextAnalyzer#asWriter()}) read it in place.
+ * Other blocks go through a UTF-8 decoder, with malformed input replaced. Line endings are
+ * kept as they are in the file.
+ */
+final class MappedTextReader {
+    static final long WINDOW_SIZE = 1L << 28;
+    private static final int BLOCK_SIZE = 1 << 20;
+    private static final int DECODE_BUFFER_SIZE = 1 << 14;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+
+    private MappedTextReader() {
+    }
+
+    static void transfer(File file, Writer out) throws IOException {
+        transfer(file, out, new ExtractionProgress());
+    }
+
+    static void transfer(File file, Writer out, ExtractionProgress progress) throws IOException {
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        CharBuffer decoded = CharBuffer.allocate(DECODE_BUFFER_SIZE);
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            boolean first = true;
+            while (position < size) {
+                long windowSize = Math.min(WINDOW_SIZE, size - position);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, windowSize);
+                if (first) {
+                    skipByteOrderMark(window);
+                    first = false;
+                }
+                boolean last = position + windowSize == size;
+                transferWindow(window, position, out, decoder, decoded, last, progress);
+                if (window.position() == 0 && !last) {
+                    throw new IOException("Cannot decode " + file + " at byte " + position);
+                }
+                // Bytes of a sequence cut by the window end are read again with the next window
+                position += window.position();
+            }
+            decoder.decode(ByteBuffer.allocate(0), decoded, true);
+            decoder.flush(decoded);
+            drain(decoded, out);
+            progress.set(size);
+        }
+    }
+
+    /**
+     * Decodes at most the first {@code maxBytes} bytes of {@code file}, reading nothing else. A
+     * sequence cut by the limit is dropped rather than replaced.
+     */
+    static String head(File file, int maxBytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer bytes = ByteBuffer.allocate((int) Math.min(maxBytes, channel.size()));
+            while (bytes.hasRemaining() && channel.read(bytes) >= 0) {
+                // Regular files return everything asked for, but a read may be short
+            }
+            bytes.flip();
+            skipByteOrderMark(bytes);
+            CharBuffer decoded = CharBuffer.allocate(bytes.remaining());
+            StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE)
+                .decode(bytes, decoded, bytes.limit() == channel.size());
+            decoded.flip();
+            return decoded.toString();
+        }
+    }
+
+    private static void transferWindow(ByteBuffer window, long windowStart, Writer out, CharsetDecoder decoder,
+                                       CharBuffer decoded, boolean last, ExtractionProgress progress)
+            throws IOException {
+        AsciiView ascii = new AsciiView(window);
+        while (window.hasRemaining()) {
+            progress.checkCancelled();
+            progress.set(windowStart + window.position());
+            int start = window.position();
+            int end = Math.min(window.limit(), start + BLOCK_SIZE);
+            if (isAscii(window, start, end)) {
+                out.append(ascii, start, end);
+                window.position(end);
+                continue;
+            }
+
+            ByteBuffer block = window.duplicate();
+            block.limit(end);
+            boolean endOfInput = last && end == window.limit();
+            while (true) {
+                CoderResult result = decoder.decode(block, decoded, endOfInput);
+                drain(decoded, out);
+                if (result.isUnderflow()) {
+                    break;
+                }
+            }
+            if (block.position() == start) {
+                // Only the start of a sequence cut by the window end is left, it is read
+                // again with the next window
+                return;
+            }
+            window.position(block.position());
+        }
+    }
+
+    private static void drain(CharBuffer decoded, Writer out) throws IOException {
+        decoded.flip();
+        if (decoded.hasRemaining()) {
+            out.write(decoded.array(), decoded.position(), decoded.remaining());
+        }
+        decoded.clear();
+    }
+
+    private static boolean isAscii(ByteBuffer buffer, int start, int end) {
+        int i = start;
+        for (; i + 8 <= end; i += 8) {
+            if ((buffer.getLong(i) & HIGH_BITS) != 0) {
+                return false;
+            }
+        }
+        for (; i < end; i++) {
+            if (buffer.get(i) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void skipByteOrderMark(ByteBuffer buffer) {
+        if (buffer.remaining() >= 3 && buffer.get(0) == (byte) 0xEF
+                && buffer.get(1) == (byte) 0xBB && buffer.get(2) == (byte) 0xBF) {
+            buffer.position(3);
+        }
+    }
+
+    /** ASCII bytes seen as characters, indexed like the underlying buffer. */
+    private static final class AsciiView implements CharSequence {
+        private final ByteBuffer bytes;
+
+        AsciiView(ByteBuffer bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public int length() {
+            return bytes.limit();
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) bytes.get(index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            StringBuilder builder = new StringBuilder(end - start);
+            for (int i = start; i < end; i++) {
+                builder.append((char) bytes.get(i));
+            }
+            return builder;
+        }
+
+        @Override
+        public String toString() {
+            return subSequence(0, length()).toString();
+        }
+    }
+}
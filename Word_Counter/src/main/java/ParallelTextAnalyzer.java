@@ -0,0 +1,172 @@
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Splits large texts into chunks and analyzes them on the fork/join pool.
+ *
+ * Chunks are cut right after whitespace, so no word is split, or, in Chinese and Japanese text
+ * without spaces, between two ideographs ({@link TextAnalyzer#canResumeAt}), whose tokens don't
+ * depend on what came before them. Each chunk is counted by an analyzer resumed from the text before it ({@link TextAnalyzer#resumingAt}), which makes
+ * sentences and paragraphs that straddle a boundary count exactly as in a sequential pass.
+ * Per-chunk frequency tables are merged left to right, keeping first-seen order. Phrases are
+ * counted by the chunk they end in, so the ones spanning a boundary are counted once too.
+ * Chunks record absolute positions, so their position indexes are joined as they are.
+ */
+public final class ParallelTextAnalyzer {
+    // Below this many characters a single pass is faster than forking
+    static final int PARALLEL_THRESHOLD = 1 << 21;
+    private static final int MIN_CHUNK_SIZE = 1 << 18;
+    // Characters analyzed between checks for cancellation
+    private static final int CHECK_INTERVAL = 1 << 16;
+
+    private ParallelTextAnalyzer() {
+    }
+
+    /** Analyzes {@code text}, in parallel if it is large enough. */
+    public static TextStats analyze(CharSequence text) {
+        return analyze(text, () -> false);
+    }
+
+    /**
+     * Same as {@link #analyze(CharSequence)} but gives up with a CancellationException as soon
+     * as {@code cancelled} returns true.
+     */
+    public static TextStats analyze(CharSequence text, BooleanSupplier cancelled) {
+        return analyze(text, null, cancelled);
+    }
+
+    /**
+     * Same as {@link #analyze(CharSequence, BooleanSupplier)} with {@code tokenizer}, or the
+     * one {@link Tokenizer#detect detected} for the text if it is null.
+     */
+    public static TextStats analyze(CharSequence text, Tokenizer tokenizer, BooleanSupplier cancelled) {
+        return analyze(text, tokenizer, 0, cancelled);
+    }
+
+    /**
+     * Same as {@link #analyze(CharSequence, Tokenizer, BooleanSupplier)}, also counting phrases
+     * of up to {@code phraseLength} words (see {@link TextAnalyzer#countPhrases}).
+     */
+    public static TextStats analyze(CharSequence text, Tokenizer tokenizer, int phraseLength,
+                                    BooleanSupplier cancelled) {
+        return analyze(text, tokenizer, phraseLength, false, cancelled);
+    }
+
+    /**
+     * Same as {@link #analyze(CharSequence, Tokenizer, int, BooleanSupplier)}, also recording
+     * where every token occurs if {@code indexPositions} (see {@link TextAnalyzer#indexPositions}).
+     */
+    public static TextStats analyze(CharSequence text, Tokenizer tokenizer, int phraseLength, boolean indexPositions,
+                                    BooleanSupplier cancelled) {
+        if (tokenizer == null) {
+            tokenizer = Tokenizer.detect(text);
+        }
+        int length = text.length();
+        if (length < PARALLEL_THRESHOLD) {
+            return analyzeRange(text, 0, length, tokenizer, phraseLength, indexPositions, cancelled);
+        }
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, length / (ForkJoinPool.commonPool().getParallelism() * 4));
+        return analyzeInChunks(text, tokenizer, phraseLength, indexPositions, chunkSize, cancelled);
+    }
+
+    /** Splits {@code text} into chunks of about {@code chunkSize} characters, however short it is. */
+    static TextStats analyzeInChunks(CharSequence text, Tokenizer tokenizer, int phraseLength, boolean indexPositions,
+                                     int chunkSize, BooleanSupplier cancelled) {
+        return ForkJoinPool.commonPool().invoke(new ChunkTask(text, 0, text.length(), chunkSize, tokenizer,
+            phraseLength, indexPositions, cancelled));
+    }
+
+    private static TextStats analyzeRange(CharSequence text, int start, int end, Tokenizer tokenizer,
+                                          int phraseLength, boolean indexPositions, BooleanSupplier cancelled) {
+        TextAnalyzer analyzer = TextAnalyzer.resumingAt(text, start, tokenizer, phraseLength);
+        if (indexPositions) {
+            analyzer.indexPositions();
+        }
+        for (int from = start; from < end; from += CHECK_INTERVAL) {
+            if (cancelled.getAsBoolean()) {
+                throw new CancellationException();
+            }
+            analyzer.feed(text, from, Math.min(end, from + CHECK_INTERVAL));
+        }
+        return analyzer.finish();
+    }
+
+    /** Adds the counts of {@code right}, which directly follows {@code left} in the text. */
+    static TextStats combine(TextStats left, TextStats right) {
+        PhaseMetrics.Span span = PerformanceMetrics.COUNT.start();
+        PhraseTable phrases = left.getPhrases();
+        PositionIndex positions = left.getPositions();
+        if (phrases != null || positions != null) {
+            int[] entryMap = left.getFrequencies().mergeEntries(right.getFrequencies(), 1);
+            if (phrases != null) {
+                phrases.merge(right.getPhrases(), entryMap, 1);
+            }
+            if (positions != null) {
+                positions.append(right.getPositions());
+            }
+        } else {
+            left.getFrequencies().merge(right.getFrequencies(), 1);
+        }
+        span.end(right.getFrequencies().entryCount(), 0);
+        return new TextStats(
+            left.getWords() + right.getWords(),
+            left.getCharacters() + right.getCharacters(),
+            left.getSentences() + right.getSentences(),
+            left.getParagraphs() + right.getParagraphs(),
+            left.getFrequencies(),
+            left.getTokenizer())
+            .withPhrases(phrases)
+            .withPositions(positions);
+    }
+
+    private static final class ChunkTask extends RecursiveTask<TextStats> {
+        private static final long serialVersionUID = 1L;
+
+        private final CharSequence text;
+        private final int start;
+        private final int end;
+        private final int chunkSize;
+        private final Tokenizer tokenizer;
+        private final int phraseLength;
+        private final boolean indexPositions;
+        private final BooleanSupplier cancelled;
+
+        ChunkTask(CharSequence text, int start, int end, int chunkSize, Tokenizer tokenizer, int phraseLength,
+                  boolean indexPositions, BooleanSupplier cancelled) {
+            this.text = text;
+            this.start = start;
+            this.end = end;
+            this.chunkSize = chunkSize;
+            this.tokenizer = tokenizer;
+            this.phraseLength = phraseLength;
+            this.indexPositions = indexPositions;
+            this.cancelled = cancelled;
+        }
+
+        @Override
+        protected TextStats compute() {
+            int split = end - start > chunkSize ? splitPoint() : end;
+            if (split >= end) {
+                return analyzeRange(text, start, end, tokenizer, phraseLength, indexPositions, cancelled);
+            }
+            ChunkTask left = new ChunkTask(text, start, split, chunkSize, tokenizer, phraseLength, indexPositions,
+                cancelled);
+            ChunkTask right = new ChunkTask(text, split, end, chunkSize, tokenizer, phraseLength, indexPositions,
+                cancelled);
+            right.fork();
+            TextStats leftStats = left.compute();
+            return combine(leftStats, right.join());
+        }
+
+        // First position at or after the middle where a chunk can start
+        private int splitPoint() {
+            int split = start + (end - start) / 2;
+            while (split < end && !TextAnalyzer.canResumeAt(text, split, tokenizer, phraseLength)) {
+                split++;
+            }
+            return split;
+        }
+    }
+}
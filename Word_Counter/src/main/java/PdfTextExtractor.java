@@ -0,0 +1,139 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.text.PDFTextStripper;
+
+/**
+ * Extracts PDF text, a range of pages per task, on several threads.
+ *
+ * PDDocument is not thread-safe, so every worker thread loads its own copy of the document,
+ * buffering beyond {@value #MAIN_MEMORY_PER_DOCUMENT} bytes in temp files. Page ranges are
+ * written to the output in order as soon as each one and its predecessors are done, with a
+ * bounded number of ranges in flight, so memory stays proportional to the range size rather
+ * than the document.
+ */
+final class PdfTextExtractor {
+    // Below this many pages loading extra copies of the document isn't worth it
+    private static final int PARALLEL_MIN_PAGES = 32;
+    private static final int PAGES_PER_TASK = 8;
+    private static final long MAIN_MEMORY_PER_DOCUMENT = 32L * 1024 * 1024;
+
+    private PdfTextExtractor() {
+    }
+
+    static void extract(File file, Writer out, ExtractionProgress progress) throws IOException {
+        int pages;
+        try (PDDocument document = load(file)) {
+            pages = document.getNumberOfPages();
+            int workers = Math.min(Runtime.getRuntime().availableProcessors(),
+                (pages + PAGES_PER_TASK - 1) / PAGES_PER_TASK);
+            if (pages < PARALLEL_MIN_PAGES || workers < 2) {
+                new ProgressStripper(pages, file.length(), progress).writeText(document, out);
+                return;
+            }
+            extractInParallel(file, pages, workers, out, progress);
+        }
+    }
+
+    /** Extracts the first {@code pages} pages only, on the calling thread. */
+    static void extractFirstPages(File file, int pages, Writer out, ExtractionProgress progress) throws IOException {
+        try (PDDocument document = load(file)) {
+            PDFTextStripper stripper = new ProgressStripper(document.getNumberOfPages(), file.length(), progress);
+            stripper.setEndPage(pages);
+            stripper.writeText(document, out);
+        }
+    }
+
+    private static void extractInParallel(File file, int pages, int workers, Writer out,
+                                          ExtractionProgress progress) throws IOException {
+        List<PDDocument> documents = Collections.synchronizedList(new ArrayList<>());
+        ThreadLocal<PDDocument> workerDocument = new ThreadLocal<>();
+        ExecutorService pool = Executors.newFixedThreadPool(workers, WorkerThreads.daemonThreads("pdf"));
+        Deque<Future<String>> inFlight = new ArrayDeque<>();
+        try {
+            int nextPage = 1;
+            while (nextPage <= pages || !inFlight.isEmpty()) {
+                // Keep every worker busy plus one range queued each
+                while (nextPage <= pages && inFlight.size() < workers * 2) {
+                    int startPage = nextPage;
+                    int endPage = Math.min(pages, startPage + PAGES_PER_TASK - 1);
+                    inFlight.add(pool.submit(() -> {
+                        PDDocument document = workerDocument.get();
+                        if (document == null) {
+                            document = load(file);
+                            documents.add(document);
+                            workerDocument.set(document);
+                        }
+                        PDFTextStripper stripper = new ProgressStripper(pages, file.length(), progress);
+                        stripper.setStartPage(startPage);
+                        stripper.setEndPage(endPage);
+                        return stripper.getText(document);
+                    }));
+                    nextPage = endPage + 1;
+                }
+                out.write(await(inFlight.poll()));
+            }
+        } finally {
+            pool.shutdownNow();
+            synchronized (documents) {
+                for (PDDocument document : documents) {
+                    document.close();
+                }
+            }
+        }
+    }
+
+    private static String await(Future<String> range) throws IOException {
+        try {
+            return range.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Cancelled");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private static PDDocument load(File file) throws IOException {
+        return PDDocument.load(file, MemoryUsageSetting.setupMixed(MAIN_MEMORY_PER_DOCUMENT));
+    }
+
+    /** Reports each finished page as its share of the file size and checks for cancellation. */
+    private static final class ProgressStripper extends PDFTextStripper {
+        private final long bytesPerPage;
+        private final ExtractionProgress progress;
+
+        ProgressStripper(int pages, long fileSize, ExtractionProgress progress) throws IOException {
+            this.bytesPerPage = fileSize / Math.max(1, pages);
+            this.progress = progress;
+        }
+
+        @Override
+        protected void startPage(PDPage page) throws IOException {
+            progress.checkCancelled();
+            super.startPage(page);
+        }
+
+        @Override
+        protected void endPage(PDPage page) throws IOException {
+            super.endPage(page);
+            progress.advance(bytesPerPage);
+        }
+    }
+}
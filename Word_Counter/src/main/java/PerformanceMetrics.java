@@ -0,0 +1,82 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.List;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * The application's performance counters, one {@link PhaseMetrics} per phase of the work:
+ * <ul>
+ * <li>extract: reading files into text, in bytes read. When a file is streamed into an
+ *     analyzer this includes the analyzer's time, which tokenize also counts.</li>
+ * <li>tokenize: the counting pass over text, in characters, with the words found.</li>
+ * <li>count: merging and ranking frequency tables, in entries.</li>
+ * <li>publish: handing a finished analysis to the UI, from the worker to the updated labels.</li>
+ * <li>edit: re-counting around an edit in the editor, on the EDT, in characters.</li>
+ * </ul>
+ * {@link #registerMBeans()} publishes them over JMX as {@code WordCounter:type=Phase,name=...}.
+ */
+public final class PerformanceMetrics {
+    public static final PhaseMetrics EXTRACT = new PhaseMetrics("Extract", "bytes", 1000);
+    public static final PhaseMetrics TOKENIZE = new PhaseMetrics("Tokenize", "chars", 100);
+    public static final PhaseMetrics COUNT = new PhaseMetrics("Count", "entries", 100);
+    public static final PhaseMetrics PUBLISH = new PhaseMetrics("Publish", "results", 16);
+    public static final PhaseMetrics EDIT = new PhaseMetrics("Edit", "chars", 16);
+
+    // Null when the JVM can't count allocations per thread
+    private static final com.sun.management.ThreadMXBean ALLOCATIONS = allocationCounter();
+
+    private PerformanceMetrics() {
+    }
+
+    public static List<PhaseMetrics> phases() {
+        return Arrays.asList(EXTRACT, TOKENIZE, COUNT, PUBLISH, EDIT);
+    }
+
+    /**
+     * Registers every phase with the platform MBean server; repeated calls do nothing. The
+     * metrics are only for monitoring, so a failure is reported on stderr and otherwise ignored.
+     */
+    public static synchronized void registerMBeans() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            for (PhaseMetrics phase : phases()) {
+                ObjectName name = new ObjectName("WordCounter:type=Phase,name=" + phase.getName());
+                if (!server.isRegistered(name)) {
+                    server.registerMBean(phase, name);
+                }
+            }
+        } catch (JMException e) {
+            System.err.println("Phase metrics are not published over JMX: " + e.getMessage());
+        }
+    }
+
+    public static void resetAll() {
+        for (PhaseMetrics phase : phases()) {
+            phase.reset();
+        }
+    }
+
+    /** Bytes allocated so far by the current thread, or 0 if the JVM doesn't track them. */
+    static long threadAllocatedBytes() {
+        return ALLOCATIONS == null ? 0 : ALLOCATIONS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        try {
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            if (threads instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean counter = (com.sun.management.ThreadMXBean) threads;
+                if (counter.isThreadAllocatedMemorySupported()) {
+                    counter.setThreadAllocatedMemoryEnabled(true);
+                    return counter;
+                }
+            }
+        } catch (RuntimeException | LinkageError e) {
+            // Not a HotSpot-compatible JVM; allocations read as 0
+        }
+        return null;
+    }
+}
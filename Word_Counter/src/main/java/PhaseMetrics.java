@@ -0,0 +1,144 @@
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running totals for one phase of the work: how often it ran, for how long, how much it
+ * processed and allocated. Safe to record from any thread.
+ *
+ * Throughputs are over the time spent in the phase, not wall-clock time, so phases that run
+ * in parallel can add up to more than the elapsed time.
+ */
+public final class PhaseMetrics implements PhaseMetricsMBean {
+    private final String name;
+    private final String unit;
+    private final long budgetNanos;
+    private volatile LatencyRecorder latency;
+    private final LongAdder nanos = new LongAdder();
+    private final LongAdder units = new LongAdder();
+    private final LongAdder tokens = new LongAdder();
+    private final LongAdder allocated = new LongAdder();
+
+    PhaseMetrics(String name, String unit, long budgetMillis) {
+        this.name = name;
+        this.unit = unit;
+        this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+        this.latency = new LatencyRecorder(1024, budgetNanos);
+    }
+
+    /** Starts timing one run of the phase on the current thread. */
+    Span start() {
+        return new Span();
+    }
+
+    void record(long elapsedNanos, long units, long tokens, long allocatedBytes) {
+        latency.record(elapsedNanos);
+        nanos.add(elapsedNanos);
+        this.units.add(units);
+        this.tokens.add(tokens);
+        allocated.add(allocatedBytes);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getUnit() {
+        return unit;
+    }
+
+    @Override
+    public long getCount() {
+        return latency.getCount();
+    }
+
+    @Override
+    public double getTotalMillis() {
+        return nanos.sum() / 1e6;
+    }
+
+    @Override
+    public double getMeanMillis() {
+        long count = getCount();
+        return count == 0 ? 0 : getTotalMillis() / count;
+    }
+
+    @Override
+    public double getP99Millis() {
+        return latency.percentileNanos(99) / 1e6;
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return latency.getMaxNanos() / 1e6;
+    }
+
+    @Override
+    public double getBudgetMillis() {
+        return budgetNanos / 1e6;
+    }
+
+    @Override
+    public long getOverBudget() {
+        return latency.getOverBudget();
+    }
+
+    @Override
+    public long getUnits() {
+        return units.sum();
+    }
+
+    @Override
+    public double getUnitsPerSecond() {
+        return perSecond(units.sum());
+    }
+
+    @Override
+    public long getTokens() {
+        return tokens.sum();
+    }
+
+    @Override
+    public double getTokensPerSecond() {
+        return perSecond(tokens.sum());
+    }
+
+    @Override
+    public long getAllocatedBytes() {
+        return allocated.sum();
+    }
+
+    @Override
+    public void reset() {
+        latency = new LatencyRecorder(1024, budgetNanos);
+        nanos.reset();
+        units.reset();
+        tokens.reset();
+        allocated.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: n=%d total=%.1fms p99=%.2fms over budget=%d %.0f %s/s %.0f tokens/s"
+            + " allocated=%.1fMB", name, getCount(), getTotalMillis(), getP99Millis(), getOverBudget(),
+            getUnitsPerSecond(), unit, getTokensPerSecond(), getAllocatedBytes() / 1048576.0);
+    }
+
+    private double perSecond(long amount) {
+        long total = nanos.sum();
+        return total == 0 ? 0 : amount * 1e9 / total;
+    }
+
+    /** One run of the phase, timed from its creation. */
+    final class Span {
+        private final long startNanos = System.nanoTime();
+        private final long startAllocated = PerformanceMetrics.threadAllocatedBytes();
+
+        /** Records the run, which processed {@code units} and found {@code tokens}. */
+        void end(long units, long tokens) {
+            record(System.nanoTime() - startNanos, units, tokens,
+                PerformanceMetrics.threadAllocatedBytes() - startAllocated);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+/**
+ * JMX view of one {@link PhaseMetrics}. Times are in milliseconds.
+ */
+public interface PhaseMetricsMBean {
+    String getName();
+
+    /** What {@link #getUnits()} counts: bytes, characters, entries... */
+    String getUnit();
+
+    long getCount();
+
+    double getTotalMillis();
+
+    double getMeanMillis();
+
+    double getP99Millis();
+
+    double getMaxMillis();
+
+    /** Longest a single run should take; runs over it are counted by {@link #getOverBudget()}. */
+    double getBudgetMillis();
+
+    /** Runs since the last reset that took longer than {@link #getBudgetMillis()}. */
+    long getOverBudget();
+
+    long getUnits();
+
+    double getUnitsPerSecond();
+
+    long getTokens();
+
+    double getTokensPerSecond();
+
+    /** Bytes allocated by the threads running the phase, where the JVM can tell. */
+    long getAllocatedBytes();
+
+    void reset();
+}
@@ -0,0 +1,319 @@
+import java.util.Arrays;
+
+/**
+ * Counts of phrases: runs of 2 to {@link #getMaxLength()} consecutive words in one sentence.
+ *
+ * A phrase is stored as the entry indexes of its words in the {@link WordCountTable} it was
+ * counted with, packed back to back in an int arena, so a trigram costs three ints rather than
+ * a String. Each length has its own open-addressing table, with the same first-seen order and
+ * ranking as word counts. Indexes only mean something together with that word table; merging
+ * phrases counted against another table goes through {@link WordCountTable#mergeEntries}.
+ *
+ * Distinct phrases grow almost linearly with the text, so each length holds at most
+ * {@code maxEntries} of them. When a table is full the rarest phrases are dropped (lossy
+ * counting): counts that remain are then lower bounds, short by at most
+ * {@link #getMaxUndercount(int)}, and the totals stay exact.
+ */
+public final class PhraseTable {
+    /** Longest phrase length that can be counted. */
+    public static final int MAX_LENGTH = 8;
+    static final int DEFAULT_MAX_ENTRIES = 1 << 20;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final Grams[] grams;
+    private final int maxEntries;
+    // Scratch for mapping another table's phrases into this one
+    private final int[] mapped;
+
+    /** Counts phrases of 2 to {@code maxLength} words. */
+    public PhraseTable(int maxLength) {
+        this(maxLength, DEFAULT_MAX_ENTRIES);
+    }
+
+    PhraseTable(int maxLength, int maxEntries) {
+        if (maxLength < 2 || maxLength > MAX_LENGTH) {
+            throw new IllegalArgumentException("Phrase length must be between 2 and " + MAX_LENGTH + ": " + maxLength);
+        }
+        this.maxEntries = maxEntries;
+        this.grams = new Grams[maxLength + 1];
+        for (int length = 2; length <= maxLength; length++) {
+            grams[length] = new Grams(length);
+        }
+        this.mapped = new int[maxLength];
+    }
+
+    /**
+     * Counts one occurrence of each phrase that ends with the last of {@code words[0, size)},
+     * the entries of the current sentence's most recent words, oldest first.
+     */
+    void countEnding(int[] words, int size) {
+        int longest = Math.min(size, grams.length - 1);
+        for (int length = 2; length <= longest; length++) {
+            grams[length].add(words, size - length, 1);
+            grams[length].total++;
+        }
+    }
+
+    /**
+     * Adds every count of {@code other}, multiplied by {@code sign}. {@code wordMap} maps the
+     * entries of the word table {@code other} was counted with to entries of this one's.
+     */
+    void merge(PhraseTable other, int[] wordMap, int sign) {
+        int longest = Math.min(getMaxLength(), other.getMaxLength());
+        for (int length = 2; length <= longest; length++) {
+            Grams from = other.grams[length];
+            Grams to = grams[length];
+            for (int entry = 0; entry < from.entries; entry++) {
+                if (from.counts[entry] == 0) {
+                    continue;
+                }
+                int base = entry * length;
+                for (int i = 0; i < length; i++) {
+                    mapped[i] = wordMap[from.words[base + i]];
+                }
+                to.add(mapped, 0, from.counts[entry] * sign);
+            }
+            to.total += sign * from.total;
+            to.undercount += from.undercount;
+        }
+    }
+
+    /** Adds {@code delta} occurrences of the phrase in {@code words[offset, offset + length)}, leaving totals alone. */
+    void add(int length, int[] words, int offset, int delta) {
+        grams[length].add(words, offset, delta);
+    }
+
+    /** Sets the totals of {@code length}, for restoring a saved table. */
+    void setTotals(int length, long total, long maxUndercount) {
+        grams[length].total = total;
+        grams[length].undercount = maxUndercount;
+    }
+
+    public int getMaxLength() {
+        return grams.length - 1;
+    }
+
+    /** Number of distinct phrases of {@code length} words currently counted. */
+    public int size(int length) {
+        return grams[length].live;
+    }
+
+    /** Number of entries for {@code length}, including ones whose count dropped to zero. */
+    public int entryCount(int length) {
+        return grams[length].entries;
+    }
+
+    /** Occurrences of phrases of {@code length} words, including dropped ones. */
+    public long getTotal(int length) {
+        return grams[length].total;
+    }
+
+    public int count(int length, int entry) {
+        return grams[length].counts[entry];
+    }
+
+    /** Entry in the word table of the {@code position}th word of the phrase. */
+    public int word(int length, int entry, int position) {
+        return grams[length].words[entry * length + position];
+    }
+
+    /** The phrase's words joined by spaces; meant for display and export, not for counting. */
+    public String phrase(int length, int entry, WordCountTable words) {
+        StringBuilder phrase = new StringBuilder(length * 8);
+        for (int position = 0; position < length; position++) {
+            if (position > 0) {
+                phrase.append(' ');
+            }
+            int word = word(length, entry, position);
+            phrase.append(words.arena(), words.offset(word), words.wordLength(word));
+        }
+        return phrase.toString();
+    }
+
+    /** True if rare phrases were dropped to stay within memory, so counts may be low. */
+    public boolean isApproximate() {
+        for (int length = 2; length < grams.length; length++) {
+            if (grams[length].undercount > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Most that any count of {@code length} words may be short by; 0 if counts are exact. */
+    public long getMaxUndercount(int length) {
+        return grams[length].undercount;
+    }
+
+    /** Phrases of {@code length} words ordered by descending count, first-seen first on ties. */
+    public int[] sortedByCount(int length) {
+        Grams table = grams[length];
+        long[] keys = new long[table.entries];
+        int size = 0;
+        for (int entry = 0; entry < table.entries; entry++) {
+            if (table.counts[entry] > 0) {
+                keys[size++] = table.rankKey(entry);
+            }
+        }
+        Arrays.sort(keys, 0, size);
+        return WordCountTable.toEntries(keys, size);
+    }
+
+    /** The {@code k} most frequent phrases of {@code length} words, as {@link #sortedByCount(int)}. */
+    public int[] topK(int length, int k) {
+        Grams table = grams[length];
+        if (k <= 0) {
+            return new int[0];
+        }
+        long[] heap = new long[Math.min(k, Math.max(table.live, 1))];
+        int size = 0;
+        for (int entry = 0; entry < table.entries; entry++) {
+            if (table.counts[entry] <= 0) {
+                continue;
+            }
+            long key = table.rankKey(entry);
+            if (size < heap.length) {
+                heap[size] = key;
+                WordCountTable.siftUp(heap, size++);
+            } else if (key < heap[0]) {
+                heap[0] = key;
+                WordCountTable.siftDown(heap, 0, size);
+            }
+        }
+        Arrays.sort(heap, 0, size);
+        return WordCountTable.toEntries(heap, size);
+    }
+
+    // Phrases of one length
+    private final class Grams {
+        private final int length;
+        // Hash index: slot -> entry index + 1 (0 means empty)
+        private int[] slots = new int[INITIAL_CAPACITY];
+        // Word entries of each phrase, length per phrase, in insertion order
+        private int[] words;
+        private int[] hashes = new int[INITIAL_CAPACITY / 2];
+        private int[] counts = new int[INITIAL_CAPACITY / 2];
+        private int entries;
+        private int live;
+        private long total;
+        private long undercount;
+
+        Grams(int length) {
+            this.length = length;
+            this.words = new int[INITIAL_CAPACITY / 2 * length];
+        }
+
+        // Adds delta occurrences of the phrase in ids[offset, offset + length)
+        void add(int[] ids, int offset, int delta) {
+            int hash = hash(ids, offset);
+            int mask = slots.length - 1;
+            int slot = hash & mask;
+            while (true) {
+                int ref = slots[slot];
+                if (ref == 0) {
+                    break;
+                }
+                int entry = ref - 1;
+                if (hashes[entry] == hash
+                        && Arrays.equals(words, entry * length, entry * length + length, ids, offset, offset + length)) {
+                    increment(entry, delta);
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (entries >= maxEntries) {
+                prune();
+                add(ids, offset, delta);
+                return;
+            }
+            insert(slot, ids, offset, hash, delta);
+        }
+
+        private void insert(int slot, int[] ids, int offset, int hash, int delta) {
+            if (entries == counts.length) {
+                int capacity = counts.length * 2;
+                words = Arrays.copyOf(words, capacity * length);
+                hashes = Arrays.copyOf(hashes, capacity);
+                counts = Arrays.copyOf(counts, capacity);
+            }
+            int entry = entries++;
+            System.arraycopy(ids, offset, words, entry * length, length);
+            hashes[entry] = hash;
+            slots[slot] = entry + 1;
+            increment(entry, delta);
+            if (entries * 2 > slots.length) {
+                rehash(slots.length * 2);
+            }
+        }
+
+        private void increment(int entry, int delta) {
+            int before = counts[entry];
+            counts[entry] = before + delta;
+            if (before <= 0 && counts[entry] > 0) {
+                live++;
+            } else if (before > 0 && counts[entry] <= 0) {
+                live--;
+            }
+        }
+
+        private void rehash(int capacity) {
+            int[] newSlots = new int[capacity];
+            int mask = capacity - 1;
+            for (int entry = 0; entry < entries; entry++) {
+                int slot = hashes[entry] & mask;
+                while (newSlots[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                newSlots[slot] = entry + 1;
+            }
+            slots = newSlots;
+        }
+
+        // Drops the phrases counted at most some floor, doubled until a quarter of the table goes
+        private void prune() {
+            int floor = 1;
+            while (countAbove(floor) > entries * 3L / 4) {
+                floor *= 2;
+            }
+            int kept = 0;
+            live = 0;
+            for (int entry = 0; entry < entries; entry++) {
+                if (counts[entry] > floor) {
+                    System.arraycopy(words, entry * length, words, kept * length, length);
+                    hashes[kept] = hashes[entry];
+                    counts[kept] = counts[entry];
+                    kept++;
+                    live++;
+                }
+            }
+            Arrays.fill(counts, kept, entries, 0);
+            entries = kept;
+            rehash(slots.length);
+            // A dropped phrase seen again starts from zero, so it may lose up to floor each time
+            undercount += floor;
+        }
+
+        private int countAbove(int floor) {
+            int above = 0;
+            for (int entry = 0; entry < entries; entry++) {
+                if (counts[entry] > floor) {
+                    above++;
+                }
+            }
+            return above;
+        }
+
+        private int hash(int[] ids, int offset) {
+            int h = 0;
+            for (int i = offset; i < offset + length; i++) {
+                h = (h + ids[i]) * 0x9E3779B9;
+            }
+            return h ^ (h >>> 16);
+        }
+
+        // Higher counts sort first, entry index breaks ties
+        long rankKey(int entry) {
+            return ((long) (Integer.MAX_VALUE - counts[entry]) << 32) | entry;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Where each word occurs: an inverted index from the entries of a {@link WordCountTable} to
+ * the character positions of their tokens, in text order.
+ *
+ * Each entry's positions are kept as gaps from the previous one, as unsigned LEB128 varints
+ * (see {@link Varints}), so a common word costs one or two bytes per occurrence and there is no
+ * object per occurrence or per word. The bytes go into slices of a shared pool of pages: a
+ * word's first slice is small, each next one is larger, and a full slice ends with the address
+ * of the next; a varint that doesn't fit starts the next slice. Adding an occurrence writes a
+ * few bytes at the end of its word's last slice and never copies a list. Lists are only read
+ * front to back, so asking for the first few occurrences of a word decodes just those,
+ * whatever the size of the text.
+ *
+ * Indexes of consecutive parts of a text are joined by {@link #append} without copying; a
+ * lookup then reads each part in turn. A pool holds at most 2 GB of lists; occurrences after
+ * that are left out.
+ *
+ * A position is where the tokenizer started the token, which is its first character; for
+ * tokens that start with a supplementary character or are CJK pairs it may be a character or
+ * two later. Positions describe the text as it was indexed and are not updated on edits.
+ */
+public final class PositionIndex {
+    private static final int PAGE_SHIFT = 15;
+    private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+    private static final int MAX_PAGES = 1 << (31 - PAGE_SHIFT);
+    // Bytes of a slice at each level, including the 4-byte address of the next
+    private static final int[] SLICE_SIZES = {8, 16, 32, 64, 128, 256, 512, 1024};
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final WordCountTable words;
+    private byte[][] pages = new byte[16][];
+    private int pageCount;
+    // Pool address of the first free byte, and free bytes left in its page
+    private int allocated;
+    private int pageFree;
+    // Two longs per entry, so adding touches one cache line: one past the last position added,
+    // and the address of the next byte to write, the bytes left in its slice and its level
+    private long[] state = new long[INITIAL_CAPACITY * 2];
+    private int[] firstSlices = new int[INITIAL_CAPACITY];
+    // Indexes of the text that follows, in order
+    private final List<PositionIndex> following = new ArrayList<>();
+
+    /** Indexes tokens by their entries in {@code words}, which lookups by word go through. */
+    PositionIndex(WordCountTable words) {
+        this.words = words;
+    }
+
+    /** Adds an occurrence of {@code entry} at {@code position}, after every one added so far. */
+    void add(int entry, long position) {
+        if (entry >= firstSlices.length) {
+            grow(entry + 1);
+        }
+        int s = entry * 2;
+        long tail = state[s + 1];
+        int address = (int) tail;
+        int left = (int) (tail >>> 32) & 0xFFFF;
+        int level = (int) (tail >>> 48);
+        if (tail == 0) {
+            // Nothing written yet: a slice in use always has an address or bytes left that aren't 0
+            address = allocate(SLICE_SIZES[0]);
+            if (address < 0) {
+                return;
+            }
+            firstSlices[entry] = address;
+            left = SLICE_SIZES[0] - 4;
+        }
+        // Gaps are at least 1, so a varint never starts with a zero byte and the zeros a new
+        // slice starts with mark the unused end of a slice that a varint didn't fit in
+        long gap = position + 1 - state[s];
+        int length = (63 - Long.numberOfLeadingZeros(gap)) / 7 + 1;
+        if (length > left) {
+            level = Math.min(level + 1, SLICE_SIZES.length - 1);
+            int slice = allocate(SLICE_SIZES[level]);
+            if (slice < 0) {
+                return;
+            }
+            // The last 4 bytes of a full slice hold the address of the next
+            int end = address + left;
+            byte[] page = pages[end >>> PAGE_SHIFT];
+            for (int i = 0; i < 4; i++) {
+                page[(end & (PAGE_SIZE - 1)) + i] = (byte) (slice >>> (8 * i));
+            }
+            address = slice;
+            left = SLICE_SIZES[level] - 4;
+        }
+        byte[] page = pages[address >>> PAGE_SHIFT];
+        int i = address & (PAGE_SIZE - 1);
+        while (gap >= 0x80) {
+            page[i++] = (byte) (gap | 0x80);
+            gap >>>= 7;
+        }
+        page[i] = (byte) gap;
+        state[s] = position + 1;
+        state[s + 1] = (address + length & 0xFFFFFFFFL) | (long) (left - length) << 32 | (long) level << 48;
+    }
+
+    // Address of size free bytes in one page, or -1 once the pool is full
+    private int allocate(int size) {
+        if (size > pageFree) {
+            if (pageCount == MAX_PAGES) {
+                return -1;
+            }
+            if (pageCount == pages.length) {
+                pages = Arrays.copyOf(pages, pageCount * 2);
+            }
+            pages[pageCount] = new byte[PAGE_SIZE];
+            allocated = pageCount++ << PAGE_SHIFT;
+            pageFree = PAGE_SIZE;
+        }
+        int address = allocated;
+        allocated += size;
+        pageFree -= size;
+        return address;
+    }
+
+    private void grow(int minCapacity) {
+        int capacity = Math.max(firstSlices.length * 2, minCapacity);
+        state = Arrays.copyOf(state, capacity * 2);
+        firstSlices = Arrays.copyOf(firstSlices, capacity);
+    }
+
+    /** Joins {@code other}, which indexes the text right after this one's, with positions from the same origin. */
+    void append(PositionIndex other) {
+        following.add(other);
+        following.addAll(other.following);
+        other.following.clear();
+    }
+
+    /** Occurrences of {@code word}, lowercased as counted, in the word table this index was built with. */
+    public int count(String word) {
+        int entry = words.find(word);
+        return entry < 0 ? 0 : Math.max(0, words.count(entry));
+    }
+
+    /** Positions of the first {@code limit} occurrences of {@code word}, in text order. */
+    public long[] positions(String word, int limit) {
+        long[] positions = new long[Math.min(limit, count(word))];
+        int found = 0;
+        for (int i = -1; i < following.size() && found < positions.length; i++) {
+            PositionIndex part = i < 0 ? this : following.get(i);
+            int entry = part.words.find(word);
+            if (entry >= 0 && entry < part.firstSlices.length) {
+                found = part.decode(entry, positions, found);
+            }
+        }
+        // Short only if the pool filled up
+        return found < positions.length ? Arrays.copyOf(positions, found) : positions;
+    }
+
+    // Decodes the entry's positions into out from found on, until out is full; returns the new found
+    private int decode(int entry, long[] out, int found) {
+        if (state[entry * 2 + 1] == 0) {
+            return found;
+        }
+        int tail = (int) state[entry * 2 + 1];
+        int address = firstSlices[entry];
+        int level = 0;
+        int end = address + SLICE_SIZES[0] - 4;
+        long position = -1;
+        while (address != tail && found < out.length) {
+            if (address == end || byteAt(address) == 0) {
+                int next = 0;
+                for (int i = 0; i < 4; i++) {
+                    next |= (byteAt(end + i) & 0xFF) << (8 * i);
+                }
+                level = Math.min(level + 1, SLICE_SIZES.length - 1);
+                address = next;
+                end = next + SLICE_SIZES[level] - 4;
+                continue;
+            }
+            long gap = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = byteAt(address++);
+                gap |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    break;
+                }
+            }
+            position += gap;
+            out[found++] = position;
+        }
+        return found;
+    }
+
+    private byte byteAt(int address) {
+        return pages[address >>> PAGE_SHIFT][address & (PAGE_SIZE - 1)];
+    }
+
+    /** Bytes taken by the index, including the parts appended to it. */
+    public long getSizeBytes() {
+        long size = (long) pageCount * PAGE_SIZE + (long) firstSlices.length * (2 * 8 + 4);
+        for (PositionIndex part : following) {
+            size += part.getSizeBytes();
+        }
+        return size;
+    }
+}
@@ -0,0 +1,280 @@
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Writes an {@link AnalysisSnapshot} to a file.
+ *
+ * Rows are streamed from the frequency table through a {@link ChannelWriter}: words are
+ * encoded from the table's own characters, so a row costs no String and no formatting. Sorted
+ * exports rank entry indexes (four bytes a row); unsorted ones write the table in first-seen
+ * order with nothing in between, which is what to pick for tens of millions of rows.
+ *
+ * CSV exports of a snapshot with phrase counts end with a second table, after a blank line:
+ * {@code Phrase,Words,Frequency,Percentage}, for every phrase length, with percentages of all
+ * phrases of the same length. Phrases are written from the word table's characters too.
+ *
+ * The binary format is, after the magic number "WCF1": the words, characters, sentences and
+ * paragraphs as varints, a flags byte ({@link #APPROXIMATE}, {@link #SORTED}), then one row
+ * per word as its length in chars, its chars and its count, all varints, ending with a row of
+ * length 0. Varints are as in {@link Varints}.
+ */
+final class StatsExporter {
+    static final int BINARY_MAGIC = 0x57434631; // "WCF1"
+    static final int APPROXIMATE = 1;
+    static final int SORTED = 2;
+
+    // Rows between checks for cancellation
+    private static final int CANCEL_CHECK = 1 << 12;
+
+    enum Format {
+        TXT("txt", "Statistics Summary"),
+        CSV("csv", "Word Frequencies (CSV)"),
+        JSONL("jsonl", "Word Frequencies (JSON Lines)"),
+        BINARY("wcf", "Word Frequencies (Binary)");
+
+        private final String extension;
+        private final String description;
+
+        Format(String extension, String description) {
+            this.extension = extension;
+            this.description = description;
+        }
+
+        String getExtension() {
+            return extension;
+        }
+
+        @Override
+        public String toString() {
+            return description;
+        }
+    }
+
+    private final AnalysisSnapshot stats;
+    private final boolean sorted;
+    private final BooleanSupplier cancelled;
+    private long rows;
+
+    /** Exports {@code stats}; with {@code sorted}, most frequent first. */
+    StatsExporter(AnalysisSnapshot stats, boolean sorted, BooleanSupplier cancelled) {
+        this.stats = stats;
+        this.sorted = sorted;
+        this.cancelled = cancelled;
+    }
+
+    /**
+     * Writes {@code target} in {@code format} and returns the number of rows. A failed
+     * or cancelled export ({@link CancellationException}) leaves no file behind.
+     */
+    long export(Format format, Path target) throws IOException {
+        rows = 0;
+        boolean done = false;
+        try (ChannelWriter out = new ChannelWriter(FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE))) {
+            switch (format) {
+                case TXT:
+                    writeSummary(out);
+                    break;
+                case CSV:
+                    out.write("Word,Frequency,Percentage\n");
+                    writeRows(out, format);
+                    writePhraseRows(out);
+                    break;
+                case JSONL:
+                    writeJsonHeader(out);
+                    writeRows(out, format);
+                    break;
+                default:
+                    writeBinaryHeader(out);
+                    writeRows(out, format);
+                    out.writeVarLong(0);
+                    break;
+            }
+            done = true;
+        } finally {
+            if (!done) {
+                Files.deleteIfExists(target);
+            }
+        }
+        return rows;
+    }
+
+    private void writeSummary(ChannelWriter out) throws IOException {
+        String newline = System.lineSeparator();
+        out.write("Text Analysis Results").write(newline);
+        out.write("===================").write(newline);
+        out.write("Words: ").writeDecimal(stats.getWords()).write(newline);
+        out.write("Characters: ").writeDecimal(stats.getCharacters()).write(newline);
+        out.write("Sentences: ").writeDecimal(stats.getSentences()).write(newline);
+        out.write("Paragraphs: ").writeDecimal(stats.getParagraphs()).write(newline);
+        out.write("Reading Time: " + stats.getReadingTime() + " minutes").write(newline);
+        out.write("Speaking Time: " + stats.getSpeakingTime() + " minutes").write(newline);
+    }
+
+    private void writeJsonHeader(ChannelWriter out) throws IOException {
+        out.write("{\"words\":").writeDecimal(stats.getWords())
+            .write(",\"characters\":").writeDecimal(stats.getCharacters())
+            .write(",\"sentences\":").writeDecimal(stats.getSentences())
+            .write(",\"paragraphs\":").writeDecimal(stats.getParagraphs())
+            .write(",\"unique_words\":").writeDecimal(stats.getUniqueWords())
+            .write(",\"approximate\":").write(stats.isApproximate() ? "true" : "false")
+            .write(",\"sorted\":").write(sorted ? "true" : "false")
+            .write("}\n");
+    }
+
+    private void writeBinaryHeader(ChannelWriter out) throws IOException {
+        out.writeInt(BINARY_MAGIC);
+        out.writeVarLong(stats.getWords());
+        out.writeVarLong(stats.getCharacters());
+        out.writeVarLong(stats.getSentences());
+        out.writeVarLong(stats.getParagraphs());
+        out.write((byte) ((stats.isApproximate() ? APPROXIMATE : 0) | (sorted ? SORTED : 0)));
+    }
+
+    private void writeRows(ChannelWriter out, Format format) throws IOException {
+        if (stats.isApproximate()) {
+            // A few thousand counters at most, already ranked by the snapshot
+            List<AnalysisSnapshot.WordFrequency> ranked = stats.getRankedWords();
+            for (AnalysisSnapshot.WordFrequency word : ranked) {
+                String text = word.getWord();
+                writeRow(out, format, text.toCharArray(), 0, text.length(), word.getCount());
+            }
+            return;
+        }
+        WordCountTable frequencies = stats.getFrequencyTable();
+        char[] arena = frequencies.arena();
+        if (sorted) {
+            PhaseMetrics.Span span = PerformanceMetrics.COUNT.start();
+            int[] ranked = frequencies.sortedByCount();
+            span.end(frequencies.entryCount(), 0);
+            for (int entry : ranked) {
+                writeRow(out, format, arena, frequencies.offset(entry), frequencies.wordLength(entry),
+                    frequencies.count(entry));
+            }
+            return;
+        }
+        for (int entry = 0, entries = frequencies.entryCount(); entry < entries; entry++) {
+            if (frequencies.isFrequencyEntry(entry)) {
+                writeRow(out, format, arena, frequencies.offset(entry), frequencies.wordLength(entry),
+                    frequencies.count(entry));
+            }
+        }
+    }
+
+    private void writePhraseRows(ChannelWriter out) throws IOException {
+        PhraseTable phrases = stats.getPhraseTable();
+        if (phrases == null) {
+            return;
+        }
+        out.write("\nPhrase,Words,Frequency,Percentage\n");
+        WordCountTable frequencies = stats.getFrequencyTable();
+        char[] arena = frequencies.arena();
+        for (int length = 2; length <= phrases.getMaxLength(); length++) {
+            long total = phrases.getTotal(length);
+            int[] ranked = sorted ? phrases.sortedByCount(length) : null;
+            int rowCount = sorted ? ranked.length : phrases.entryCount(length);
+            for (int i = 0; i < rowCount; i++) {
+                int entry = sorted ? ranked[i] : i;
+                int count = phrases.count(length, entry);
+                if (count <= 0) {
+                    continue;
+                }
+                countRow();
+                // Phrase words are letters only, so the field never needs quoting
+                for (int position = 0; position < length; position++) {
+                    int word = phrases.word(length, entry, position);
+                    if (position > 0) {
+                        out.write((byte) ' ');
+                    }
+                    out.write(arena, frequencies.offset(word), frequencies.wordLength(word));
+                }
+                out.write((byte) ',').writeDecimal(length).write((byte) ',').writeDecimal(count).write((byte) ',');
+                writePercentage(out, count, total);
+                out.write((byte) '\n');
+            }
+        }
+    }
+
+    private void countRow() {
+        if ((++rows & (CANCEL_CHECK - 1)) == 0 && cancelled.getAsBoolean()) {
+            throw new CancellationException();
+        }
+    }
+
+    private void writeRow(ChannelWriter out, Format format, char[] word, int offset, int length, long count)
+            throws IOException {
+        countRow();
+        switch (format) {
+            case CSV:
+                writeCsvField(out, word, offset, length);
+                out.write((byte) ',').writeDecimal(count).write((byte) ',');
+                writePercentage(out, count, stats.getWords());
+                out.write((byte) '\n');
+                break;
+            case JSONL:
+                out.write("{\"word\":");
+                writeJsonString(out, word, offset, length);
+                out.write(",\"count\":").writeDecimal(count).write("}\n");
+                break;
+            default:
+                out.writeVarLong(length);
+                for (int i = offset; i < offset + length; i++) {
+                    out.writeVarLong(word[i]);
+                }
+                out.writeVarLong(count);
+                break;
+        }
+    }
+
+    // Share of total to one decimal, as "%.1f%%" would print it
+    private static void writePercentage(ChannelWriter out, long count, long total) throws IOException {
+        long tenths = total == 0 ? 0 : Math.round(count * 1000.0 / total);
+        out.writeDecimal(tenths / 10).write((byte) '.').writeDecimal(tenths % 10).write((byte) '%');
+    }
+
+    private static void writeCsvField(ChannelWriter out, char[] word, int offset, int length) throws IOException {
+        boolean quote = false;
+        for (int i = offset; i < offset + length && !quote; i++) {
+            char c = word[i];
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            out.write(word, offset, length);
+            return;
+        }
+        out.write((byte) '"');
+        for (int i = offset; i < offset + length; i++) {
+            if (word[i] == '"') {
+                out.write((byte) '"');
+            }
+            out.write(word[i]);
+        }
+        out.write((byte) '"');
+    }
+
+    private static void writeJsonString(ChannelWriter out, char[] word, int offset, int length) throws IOException {
+        out.write((byte) '"');
+        int start = offset;
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            char c = word[i];
+            if (c == '"' || c == '\\' || c < 0x20) {
+                out.write(word, start, i - start);
+                if (c < 0x20) {
+                    out.write(String.format("\\u%04x", (int) c));
+                } else {
+                    out.write((byte) '\\').write((byte) c);
+                }
+                start = i + 1;
+            }
+        }
+        out.write(word, start, end - start);
+        out.write((byte) '"');
+    }
+}
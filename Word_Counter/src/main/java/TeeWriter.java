@@ -0,0 +1,49 @@
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes everything to two writers, for counting text while also saving it.
+ */
+final class TeeWriter extends Writer {
+    private final Writer first;
+    private final Writer second;
+
+    TeeWriter(Writer first, Writer second) {
+        this.first = first;
+        this.second = second;
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        first.write(cbuf, off, len);
+        second.write(cbuf, off, len);
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        first.write(str, off, len);
+        second.write(str, off, len);
+    }
+
+    @Override
+    public Writer append(CharSequence csq, int start, int end) throws IOException {
+        first.append(csq, start, end);
+        second.append(csq, start, end);
+        return this;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        first.flush();
+        second.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            first.close();
+        } finally {
+            second.close();
+        }
+    }
+}
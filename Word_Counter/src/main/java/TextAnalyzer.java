@@ -0,0 +1,537 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+/**
+ * Single-pass text statistics engine.
+ *
+ * Every character goes through one small state machine that tracks sentence and paragraph
+ * boundaries, and through a {@link Tokenizer} that finds the words, at the same time. Token
+ * characters are lowercased into a reusable buffer and counted directly, so nothing is
+ * allocated per token.
+ *
+ * Words are whatever the tokenizer finds. A sentence starts at the first character that is
+ * not whitespace or one of {@code .!?} after a terminator (or at the start of the text). A
+ * paragraph starts at the first non-whitespace character after a blank line (or at the start).
+ *
+ * With {@link #countPhrases(int)}, runs of consecutive words are counted in the same pass, as
+ * tuples of the words' table entries. Phrases don't cross sentence or paragraph boundaries, or
+ * tokens other than alphabetic words (numbers, CJK bigrams).
+ *
+ * With {@link #indexPositions()}, where each token starts is recorded too, in a
+ * {@link PositionIndex} over the same entries.
+ */
+public final class TextAnalyzer {
+    // Kind of the last non-whitespace character seen
+    private static final int NONE = 0;
+    private static final int CONTENT = 1;
+    private static final int TERMINATOR = 2;
+    // Writes shorter than this are gathered before counting
+    private static final int WRITE_BUFFER = 8192;
+
+    private final WordCountTable table = new WordCountTable();
+    private HeavyHitters heavyHitters;
+    private HyperLogLog uniqueSketch;
+    private PhraseTable phrases;
+    // Entries of the last words of the current sentence, oldest first
+    private int[] phraseWords;
+    private int phraseWordCount;
+    // Reading context before a resumed range: tokens are looked up but not counted
+    private boolean priming;
+    private PositionIndex positions;
+    // Characters read so far, and where the current token started
+    private long position;
+    private long tokenStart;
+    private long words;
+    private long characters;
+    private long sentences;
+    private long paragraphs;
+
+    private int last = NONE;
+    private int newlines;       // newlines in the current whitespace run
+    private boolean inRun;      // inside a run of non-whitespace characters
+
+    private Tokenizer tokenizer;
+    // Text held back until there is enough to choose a tokenizer from
+    private StringBuilder sample;
+
+    private char[] writeBuffer;
+    private CharBuffer writeView;
+    private int buffered;
+
+    // Time and allocations spent counting, reported to PerformanceMetrics.TOKENIZE
+    private boolean timed = true;
+    private long busyNanos;
+    private long allocatedBytes;
+
+    private char[] token = new char[64];
+    private int tokenLength;
+    private int tokenHash;
+    boolean tokenAlphabetic;
+    boolean tokenIsWord;
+
+    // Segmentation state, owned by the tokenizer and empty after whitespace
+    int wordClass;
+    char pendingMid;
+    int pendingMidClass;
+    char pendingHigh;
+    int cjkPrevious = -1;
+    boolean cjkPaired;
+
+    /** Chooses the tokenizer from the start of the text, see {@link Tokenizer#detect}. */
+    public TextAnalyzer() {
+        this(null);
+    }
+
+    /** Uses {@code tokenizer}, or chooses one from the start of the text if it is null. */
+    public TextAnalyzer(Tokenizer tokenizer) {
+        this.tokenizer = tokenizer;
+        if (tokenizer == null) {
+            sample = new StringBuilder();
+        }
+    }
+
+    public static TextStats analyze(CharSequence text) {
+        return analyze(text, null);
+    }
+
+    /** Analyzes {@code text} with {@code tokenizer}, or one chosen for the text if it is null. */
+    public static TextStats analyze(CharSequence text, Tokenizer tokenizer) {
+        if (tokenizer == null) {
+            tokenizer = Tokenizer.detect(text);
+        }
+        return new TextAnalyzer(tokenizer).feed(text, 0, text.length()).finish();
+    }
+
+    /**
+     * Counts frequencies approximately in a fixed number of counters instead of exactly,
+     * for inputs whose vocabulary doesn't fit in memory. Unique words and the longest word
+     * are not tracked in this mode.
+     */
+    public TextAnalyzer approximateFrequencies(int counters) {
+        heavyHitters = new HeavyHitters(counters);
+        return this;
+    }
+
+    /** Same as {@link #analyze(CharSequence, Tokenizer)}, also counting phrases of up to {@code phraseLength} words. */
+    public static TextStats analyze(CharSequence text, Tokenizer tokenizer, int phraseLength) {
+        if (tokenizer == null) {
+            tokenizer = Tokenizer.detect(text);
+        }
+        return new TextAnalyzer(tokenizer).countPhrases(phraseLength).feed(text, 0, text.length()).finish();
+    }
+
+    /**
+     * Also estimates the number of distinct tokens in a {@link HyperLogLog} sketch of
+     * {@code precision}, which can be merged across files and threads. With
+     * {@link #approximateFrequencies(int)} the sketch is fed token by token and is the only
+     * unique word count; otherwise it is filled from the exact table at the end.
+     */
+    public TextAnalyzer estimateUniqueWords(int precision) {
+        uniqueSketch = new HyperLogLog(precision);
+        return this;
+    }
+
+    /**
+     * Also counts phrases of 2 to {@code maxLength} words (see {@link PhraseTable}); a
+     * {@code maxLength} below 2 counts none. Phrases need exact frequencies, so they are not
+     * counted together with {@link #approximateFrequencies(int)}.
+     */
+    public TextAnalyzer countPhrases(int maxLength) {
+        if (maxLength >= 2) {
+            phrases = new PhraseTable(maxLength);
+            phraseWords = new int[maxLength];
+        }
+        return this;
+    }
+
+    /**
+     * Also records where every token occurs, see {@link PositionIndex}. Positions need exact
+     * frequencies, so they are not recorded together with {@link #approximateFrequencies(int)}.
+     */
+    public TextAnalyzer indexPositions() {
+        positions = new PositionIndex(table);
+        return this;
+    }
+
+    /**
+     * Creates an analyzer in the state it would be in after reading {@code text[0, start)}
+     * up to the end of its last word, so that {@code text[start, end)} can be counted on its
+     * own with {@code tokenizer}. {@code start} must be a position {@link #canResumeAt} accepts.
+     */
+    static TextAnalyzer resumingAt(CharSequence text, int start, Tokenizer tokenizer) {
+        return resumingAt(text, start, tokenizer, 0);
+    }
+
+    /**
+     * Same as {@link #resumingAt(CharSequence, int, Tokenizer)}, also counting phrases of up to
+     * {@code phraseLength} words. Phrases are counted where they end, so the ones that start
+     * before {@code start} and end after it are counted here and not before.
+     */
+    static TextAnalyzer resumingAt(CharSequence text, int start, Tokenizer tokenizer, int phraseLength) {
+        TextAnalyzer analyzer = new TextAnalyzer(tokenizer).countPhrases(phraseLength);
+        if (start > 0 && !isWhitespace(text.charAt(start - 1))) {
+            // Cut between ideographs, which may pair across it
+            analyzer.prime(text, start - ideographContext(phraseLength), start);
+        } else if (analyzer.phrases != null && tokenizer != null) {
+            analyzer.prime(text, skipWordsBackward(text, start, phraseLength - 1), start);
+        }
+        int i = start - 1;
+        while (i >= 0 && isWhitespace(text.charAt(i))) {
+            if (text.charAt(i) == '\n') {
+                analyzer.newlines++;
+            }
+            i--;
+        }
+        if (i >= 0) {
+            analyzer.last = isTerminator(text.charAt(i)) ? TERMINATOR : CONTENT;
+        }
+        analyzer.position = start;
+        return analyzer;
+    }
+
+    /**
+     * True if {@code position} is 0, directly follows whitespace, or is inside a run of
+     * {@link Tokenizer#isIdeograph ideographs} with enough of them before it to read the pair
+     * and the phrase it continues from, so that an analyzer can be {@link #resumingAt resumed}
+     * there with {@code tokenizer} and {@code phraseLength}.
+     */
+    static boolean canResumeAt(CharSequence text, int position, Tokenizer tokenizer, int phraseLength) {
+        if (position == 0 || isWhitespace(text.charAt(position - 1))) {
+            return true;
+        }
+        int from = position - ideographContext(phraseLength);
+        if (from < 0 || position == text.length() || !tokenizer.isIdeograph(text.charAt(position))) {
+            return false;
+        }
+        for (int i = from; i < position; i++) {
+            if (!tokenizer.isIdeograph(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Ideographs read before a cut between them: the last pair, and each word of the last phrase
+    private static int ideographContext(int phraseLength) {
+        return Math.max(2, phraseLength);
+    }
+
+    // Reads text[from, start), which tokens and phrases continuing after it begin with, counting nothing
+    private void prime(CharSequence text, int from, int start) {
+        priming = true;
+        tokenizer.tokenize(this, text, from, start);
+        priming = false;
+        words = 0;
+        sentences = 0;
+        paragraphs = 0;
+        last = NONE;
+        newlines = 0;
+        inRun = false;
+    }
+
+    /** Leaves this analyzer out of {@link PerformanceMetrics}, for callers that time themselves. */
+    TextAnalyzer untimed() {
+        timed = false;
+        return this;
+    }
+
+    public TextAnalyzer feed(CharSequence text, int start, int end) {
+        if (buffered > 0) {
+            flushWrites();
+        }
+        process(text, start, end);
+        return this;
+    }
+
+    private void process(CharSequence text, int start, int end) {
+        long startNanos = timed ? System.nanoTime() : 0;
+        long startAllocated = timed ? PerformanceMetrics.threadAllocatedBytes() : 0;
+        if (tokenizer == null) {
+            int taken = Math.min(end - start, Tokenizer.DETECTION_SAMPLE - sample.length());
+            sample.append(text, start, start + taken);
+            start += taken;
+            if (sample.length() == Tokenizer.DETECTION_SAMPLE) {
+                chooseTokenizer();
+            }
+        }
+        if (tokenizer != null) {
+            characters += end - start;
+            tokenizer.tokenize(this, text, start, end);
+        }
+        if (timed) {
+            busyNanos += System.nanoTime() - startNanos;
+            allocatedBytes += PerformanceMetrics.threadAllocatedBytes() - startAllocated;
+        }
+    }
+
+    /** Feeds everything {@code reader} returns, without keeping it. */
+    public TextAnalyzer feed(Reader reader) throws IOException {
+        char[] buffer = new char[8192];
+        CharBuffer view = CharBuffer.wrap(buffer);
+        int read;
+        while ((read = reader.read(buffer)) >= 0) {
+            feed(view, 0, read);
+        }
+        return this;
+    }
+
+    /**
+     * A writer that feeds whatever is written to it into this analyzer. Short writes are
+     * gathered into a buffer first, so extractors writing a few characters at a time don't
+     * pay the per-call overhead on each one.
+     */
+    public Writer asWriter() {
+        return new Writer() {
+            @Override
+            public void write(int c) {
+                if (buffered == WRITE_BUFFER) {
+                    flushWrites();
+                }
+                buffer()[buffered++] = (char) c;
+            }
+
+            @Override
+            public void write(char[] cbuf, int off, int len) {
+                if (len >= WRITE_BUFFER) {
+                    feed(CharBuffer.wrap(cbuf), off, off + len);
+                    return;
+                }
+                if (buffered + len > WRITE_BUFFER) {
+                    flushWrites();
+                }
+                System.arraycopy(cbuf, off, buffer(), buffered, len);
+                buffered += len;
+            }
+
+            @Override
+            public void write(String str, int off, int len) {
+                append(str, off, off + len);
+            }
+
+            @Override
+            public Writer append(CharSequence csq, int start, int end) {
+                int len = end - start;
+                if (len >= WRITE_BUFFER) {
+                    // Read the sequence in place instead of copying it to a String first
+                    feed(csq, start, end);
+                    return this;
+                }
+                if (buffered + len > WRITE_BUFFER) {
+                    flushWrites();
+                }
+                char[] buffer = buffer();
+                for (int i = start; i < end; i++) {
+                    buffer[buffered++] = csq.charAt(i);
+                }
+                return this;
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    /** Flushes the pending word and returns the totals. */
+    public TextStats finish() {
+        if (buffered > 0) {
+            flushWrites();
+        }
+        if (tokenizer == null) {
+            chooseTokenizer();
+        }
+        tokenizer.finish(this);
+        if (timed) {
+            PerformanceMetrics.TOKENIZE.record(busyNanos, characters, words, allocatedBytes);
+        }
+        if (uniqueSketch != null && heavyHitters == null) {
+            uniqueSketch.offerAll(table);
+        }
+        TextStats stats = new TextStats(words, characters, sentences, paragraphs, table, tokenizer)
+            .withUniqueWordSketch(uniqueSketch);
+        if (heavyHitters != null) {
+            // Phrases and positions refer to exact entries, which approximate counts don't have
+            return stats.withHeavyHitters(heavyHitters);
+        }
+        return stats.withPhrases(phrases).withPositions(positions);
+    }
+
+    private char[] buffer() {
+        if (writeBuffer == null) {
+            writeBuffer = new char[WRITE_BUFFER];
+            writeView = CharBuffer.wrap(writeBuffer);
+        }
+        return writeBuffer;
+    }
+
+    private void flushWrites() {
+        int length = buffered;
+        buffered = 0;
+        process(writeView, 0, length);
+    }
+
+    private void chooseTokenizer() {
+        tokenizer = Tokenizer.detect(sample);
+        CharSequence held = sample;
+        sample = null;
+        characters += held.length();
+        tokenizer.tokenize(this, held, 0, held.length());
+    }
+
+    // Called by the tokenizer for whitespace
+    void whitespace(char c) {
+        position++;
+        inRun = false;
+        if (c == '\n') {
+            newlines++;
+        }
+    }
+
+    // Called by the tokenizer for every other character, before it looks at it
+    void content(char c) {
+        position++;
+        if (!inRun) {
+            inRun = true;
+            if (last == NONE || newlines >= 2) {
+                paragraphs++;
+                phraseWordCount = 0;
+            }
+            newlines = 0;
+        }
+        if (isTerminator(c)) {
+            last = TERMINATOR;
+        } else {
+            if (last != CONTENT) {
+                sentences++;
+                phraseWordCount = 0;
+            }
+            last = CONTENT;
+        }
+    }
+
+    // The tokenizer has just passed the token's first character to content()
+    void beginToken() {
+        tokenStart = position - 1;
+        tokenLength = 0;
+        tokenHash = 0;
+        tokenAlphabetic = true;
+    }
+
+    void appendToken(char c) {
+        char lower = Character.toLowerCase(c);
+        if (tokenLength == token.length) {
+            token = Arrays.copyOf(token, tokenLength * 2);
+        }
+        token[tokenLength++] = lower;
+        tokenHash = 31 * tokenHash + lower;
+    }
+
+    /** Counts the token built since {@link #beginToken()}, and a word if {@code isWord}. */
+    void endToken(boolean isWord) {
+        if (priming && phrases == null) {
+            return; // only the tokenizer's state is needed
+        }
+        if (isWord && !priming) {
+            words++;
+        }
+        int h = WordCountTable.spread(tokenHash);
+        if (heavyHitters == null) {
+            int entry = table.add(token, 0, tokenLength, h, tokenAlphabetic, priming ? 0 : 1);
+            if (positions != null && !priming) {
+                positions.add(entry, tokenStart);
+            }
+            if (phrases != null) {
+                if (isWord && tokenAlphabetic) {
+                    nextPhraseWord(entry);
+                } else {
+                    phraseWordCount = 0;
+                }
+            }
+        } else {
+            if (uniqueSketch != null) {
+                uniqueSketch.offer(token, 0, tokenLength);
+            }
+            if (tokenAlphabetic) {
+                heavyHitters.offer(token, 0, tokenLength, h, 1);
+            }
+        }
+    }
+
+    private void nextPhraseWord(int entry) {
+        if (phraseWordCount == phraseWords.length) {
+            System.arraycopy(phraseWords, 1, phraseWords, 0, phraseWordCount - 1);
+            phraseWordCount--;
+        }
+        phraseWords[phraseWordCount++] = entry;
+        if (!priming) {
+            phrases.countEnding(phraseWords, phraseWordCount);
+        }
+    }
+
+    /** Counts a word that has no token of its own. */
+    void countWord() {
+        words++;
+    }
+
+    /**
+     * Position of the start of the {@code count}th run of non-whitespace before {@code position}
+     * that can hold a token (has a letter or digit), or 0. Runs of punctuation are crossed
+     * without being counted.
+     */
+    static int skipWordsBackward(CharSequence text, int position, int count) {
+        return skipWordsBackward(text, position, count, 0);
+    }
+
+    /** Same as {@link #skipWordsBackward(CharSequence, int, int)}, never going before {@code floor}. */
+    static int skipWordsBackward(CharSequence text, int position, int count, int floor) {
+        while (count > 0 && position > floor) {
+            while (position > floor && isWhitespace(text.charAt(position - 1))) {
+                position--;
+            }
+            boolean word = false;
+            while (position > floor && !isWhitespace(text.charAt(position - 1))) {
+                word |= Character.isLetterOrDigit(text.charAt(--position));
+            }
+            if (word) {
+                count--;
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Like {@link #skipWordsBackward}, forward: the end of the {@code count}th such run after
+     * {@code position}, never going past {@code limit}.
+     */
+    static int skipWordsForward(CharSequence text, int position, int count, int limit) {
+        while (count > 0 && position < limit) {
+            while (position < limit && isWhitespace(text.charAt(position))) {
+                position++;
+            }
+            boolean word = false;
+            while (position < limit && !isWhitespace(text.charAt(position))) {
+                word |= Character.isLetterOrDigit(text.charAt(position++));
+            }
+            if (word) {
+                count--;
+            }
+        }
+        return position;
+    }
+
+    static boolean isTerminator(char c) {
+        return c == '.' || c == '!' || c == '?';
+    }
+
+    // Same set as the regex class \s
+    static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\n' || c == '\t' || c == '\r' || c == '\f' || c == '\u000B';
+    }
+}
@@ -0,0 +1,143 @@
+/**
+ * Result of analyzing a piece of text.
+ */
+public final class TextStats {
+    // Average reading speed: 200 words per minute
+    private static final double READING_WPM = 200.0;
+    // Average speaking speed: 130 words per minute
+    private static final double SPEAKING_WPM = 130.0;
+
+    private final long words;
+    private final long characters;
+    private final long sentences;
+    private final long paragraphs;
+    private final WordCountTable frequencies;
+    private final HeavyHitters heavyHitters;
+    private final PhraseTable phrases;
+    private final HyperLogLog uniqueWordSketch;
+    private final PositionIndex positions;
+    private final Tokenizer tokenizer;
+
+    /**
+     * Totals and word counts found with {@code tokenizer}, which may be null. What else was
+     * counted is added with the {@code with...} methods, which return copies.
+     */
+    TextStats(long words, long characters, long sentences, long paragraphs, WordCountTable frequencies,
+              Tokenizer tokenizer) {
+        this(words, characters, sentences, paragraphs, frequencies, null, null, null, null, tokenizer);
+    }
+
+    private TextStats(long words, long characters, long sentences, long paragraphs, WordCountTable frequencies,
+                      HeavyHitters heavyHitters, PhraseTable phrases, HyperLogLog uniqueWordSketch,
+                      PositionIndex positions, Tokenizer tokenizer) {
+        this.words = words;
+        this.characters = characters;
+        this.sentences = sentences;
+        this.paragraphs = paragraphs;
+        this.frequencies = frequencies;
+        this.heavyHitters = heavyHitters;
+        this.phrases = phrases;
+        this.uniqueWordSketch = uniqueWordSketch;
+        this.positions = positions;
+        this.tokenizer = tokenizer;
+    }
+
+    /** These stats with {@code frequencies} as approximated by {@code heavyHitters}, or exact again if null. */
+    TextStats withHeavyHitters(HeavyHitters heavyHitters) {
+        return new TextStats(words, characters, sentences, paragraphs, frequencies, heavyHitters, phrases,
+            uniqueWordSketch, positions, tokenizer);
+    }
+
+    /** These stats with phrase counts over the entries of {@link #getFrequencies()}, or none if null. */
+    TextStats withPhrases(PhraseTable phrases) {
+        return new TextStats(words, characters, sentences, paragraphs, frequencies, heavyHitters, phrases,
+            uniqueWordSketch, positions, tokenizer);
+    }
+
+    /** These stats with a sketch of the distinct tokens, or none if null. */
+    TextStats withUniqueWordSketch(HyperLogLog uniqueWordSketch) {
+        return new TextStats(words, characters, sentences, paragraphs, frequencies, heavyHitters, phrases,
+            uniqueWordSketch, positions, tokenizer);
+    }
+
+    /** These stats with the positions of the entries of {@link #getFrequencies()}, or none if null. */
+    TextStats withPositions(PositionIndex positions) {
+        return new TextStats(words, characters, sentences, paragraphs, frequencies, heavyHitters, phrases,
+            uniqueWordSketch, positions, tokenizer);
+    }
+
+    public long getWords() {
+        return words;
+    }
+
+    public long getCharacters() {
+        return characters;
+    }
+
+    public long getSentences() {
+        return sentences;
+    }
+
+    public long getParagraphs() {
+        return paragraphs;
+    }
+
+    /** Distinct tokens: exact, or estimated if frequencies were approximated with a sketch kept. */
+    public int getUniqueWords() {
+        if (isUniqueWordsEstimated()) {
+            return (int) Math.min(Integer.MAX_VALUE, uniqueWordSketch.estimate());
+        }
+        return frequencies.size();
+    }
+
+    /** True if {@link #getUniqueWords()} comes from {@link #getUniqueWordSketch()}. */
+    public boolean isUniqueWordsEstimated() {
+        return heavyHitters != null && uniqueWordSketch != null;
+    }
+
+    /** Sketch of the distinct tokens, or null if none was asked for. */
+    public HyperLogLog getUniqueWordSketch() {
+        return uniqueWordSketch;
+    }
+
+    public String getLongestWord() {
+        return frequencies.longestWord();
+    }
+
+    public WordCountTable getFrequencies() {
+        return frequencies;
+    }
+
+    /** Approximate top words, or null if frequencies were counted exactly. */
+    public HeavyHitters getHeavyHitters() {
+        return heavyHitters;
+    }
+
+    /** Phrase counts, over the entries of {@link #getFrequencies()}, or null if phrases weren't counted. */
+    public PhraseTable getPhrases() {
+        return phrases;
+    }
+
+    /** Where each token of {@link #getFrequencies()} occurs, or null if positions weren't indexed. */
+    public PositionIndex getPositions() {
+        return positions;
+    }
+
+    /** Mean length in characters of the counted tokens, 0 if frequencies were approximated. */
+    public double getAverageWordLength() {
+        return frequencies.averageLength();
+    }
+
+    /** Tokenizer the words were found with, or null if unknown or mixed (a corpus). */
+    public Tokenizer getTokenizer() {
+        return tokenizer;
+    }
+
+    public double getReadingTime() {
+        return Math.ceil(words / READING_WPM);
+    }
+
+    public double getSpeakingTime() {
+        return Math.ceil(words / SPEAKING_WPM);
+    }
+}
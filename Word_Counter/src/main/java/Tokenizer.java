@@ -0,0 +1,91 @@
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Splits text into word tokens for a {@link TextAnalyzer}.
+ *
+ * The analyzer hands every character to its tokenizer, which reports words and frequency
+ * tokens back through the analyzer. Tokenizers keep no state across whitespace, so text can
+ * still be counted in pieces cut at whitespace, or between {@link #isIdeograph ideographs}
+ * given the ones before the cut ({@link TextAnalyzer#resumingAt}).
+ *
+ * Which tokenizer suits a document depends on its scripts; {@link #detect(CharSequence)}
+ * picks one from a sample of the text.
+ */
+public interface Tokenizer {
+    /** Word-break rules over ASCII, with every other character taken as a letter. */
+    Tokenizer ASCII = new AsciiTokenizer();
+
+    /** Word-break rules over all of Unicode; each ideograph is a word of its own. */
+    Tokenizer UNICODE = new UnicodeTokenizer();
+
+    /** As {@link #UNICODE}, but runs of CJK characters are counted as overlapping bigrams. */
+    Tokenizer CJK_BIGRAM = new CjkBigramTokenizer();
+
+    // Characters sampled by detect()
+    int DETECTION_SAMPLE = 1 << 16;
+
+    /** Short stable name, for options and cache entries. */
+    String getId();
+
+    /** Passes {@code text[start, end)} to {@code analyzer}'s counters. */
+    void tokenize(TextAnalyzer analyzer, CharSequence text, int start, int end);
+
+    /** Ends the token in progress at the end of the text. */
+    void finish(TextAnalyzer analyzer);
+
+    /** False if {@code text} needs a more general tokenizer than this one. */
+    default boolean covers(CharSequence text) {
+        return true;
+    }
+
+    /**
+     * True if {@code c} is a token of its own, or pairs into tokens with the characters next to
+     * it, whatever precedes it; text without spaces can then be cut between two of them.
+     */
+    default boolean isIdeograph(char c) {
+        return false;
+    }
+
+    static List<Tokenizer> all() {
+        return Arrays.asList(ASCII, UNICODE, CJK_BIGRAM);
+    }
+
+    /** The tokenizer with the given id, or null if there is none. */
+    static Tokenizer forId(String id) {
+        for (Tokenizer tokenizer : all()) {
+            if (tokenizer.getId().equals(id)) {
+                return tokenizer;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Picks a tokenizer from the first {@value #DETECTION_SAMPLE} characters of {@code text}:
+     * CJK bigrams if at least a fifth of the word characters are CJK, Unicode if there is any
+     * other non-ASCII character, and ASCII otherwise.
+     */
+    static Tokenizer detect(CharSequence text) {
+        int length = Math.min(text.length(), DETECTION_SAMPLE);
+        int i = 0;
+        while (i < length && text.charAt(i) < 0x80) {
+            i++;
+        }
+        if (i == length) {
+            return ASCII;
+        }
+        int wordChars = 0;
+        int cjkChars = 0;
+        for (i = 0; i < length; i++) {
+            int type = WordBreakTokenizer.unicodeClass(text.charAt(i));
+            if (type == WordBreakTokenizer.IDEOGRAPH || type == WordBreakTokenizer.KATAKANA) {
+                cjkChars++;
+                wordChars++;
+            } else if (type == WordBreakTokenizer.LETTER || type == WordBreakTokenizer.DIGIT) {
+                wordChars++;
+            }
+        }
+        return cjkChars * 5 >= wordChars && cjkChars > 0 ? CJK_BIGRAM : UNICODE;
+    }
+}
@@ -0,0 +1,14 @@
+/**
+ * The word-break rules over every script, with a class table covering the whole BMP.
+ * Supplementary characters are classified as they come, which is slower but rare.
+ */
+final class UnicodeTokenizer extends WordBreakTokenizer {
+    UnicodeTokenizer() {
+        super("unicode", Tables.UNICODE, false);
+    }
+
+    @Override
+    public String toString() {
+        return "Unicode";
+    }
+}
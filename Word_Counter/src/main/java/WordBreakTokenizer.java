@@ -0,0 +1,350 @@
+/**
+ * Word segmentation after the default word-break rules of Unicode (UAX #29), which are the
+ * rules {@link java.text.BreakIterator#getWordInstance()} follows.
+ *
+ * Letters and digits join into words, and so do letters across an apostrophe or period
+ * ("don't", "e.g") and digits across a comma or period ("1,000", "3.14"). Marks and format
+ * characters stay with the character before them, connector punctuation such as '_' joins
+ * what is on either side, and everything else (hyphens, dashes, quotes, symbols) ends a
+ * word. Only segments with a letter, digit or ideograph count as words; tokens with no digit
+ * or connector are alphabetic and go into the frequency table.
+ *
+ * Characters are classified by a lookup in a precomputed table, so the rules cost the same
+ * per character whatever the script. Subclasses choose the table and how ideographs are
+ * split; the per-token state lives in the analyzer, so one instance serves every analyzer.
+ */
+abstract class WordBreakTokenizer implements Tokenizer {
+    // Character classes; NONE also marks "no token in progress"
+    static final byte NONE = 0;
+    static final byte SPACE = 1;          // whitespace as TextAnalyzer.isWhitespace sees it
+    static final byte LETTER = 2;
+    static final byte DIGIT = 3;
+    static final byte KATAKANA = 4;
+    static final byte IDEOGRAPH = 5;      // Han and Hiragana
+    static final byte EXTEND = 6;         // combining marks and format characters
+    static final byte EXTEND_NUM_LET = 7; // connector punctuation
+    static final byte MID_LETTER = 8;     // joins letters
+    static final byte MID_NUM = 9;        // joins digits
+    static final byte MID_NUM_LET = 10;   // joins letters or digits
+    static final byte HIGH_SURROGATE = 11;
+    static final byte OTHER = 12;
+
+    private final String id;
+    private final byte[] classes;
+    private final boolean bigrams;
+
+    /**
+     * {@code classes} is indexed by char; chars beyond its end are letters. With
+     * {@code bigrams}, runs of ideographs and katakana give overlapping pairs.
+     */
+    WordBreakTokenizer(String id, byte[] classes, boolean bigrams) {
+        this.id = id;
+        this.classes = classes;
+        this.bigrams = bigrams;
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public boolean isIdeograph(char c) {
+        return c < classes.length && classes[c] == IDEOGRAPH;
+    }
+
+    @Override
+    public final void tokenize(TextAnalyzer a, CharSequence text, int start, int end) {
+        byte[] classes = this.classes;
+        int i = start;
+        if (a.pendingHigh != 0 && i < end) {
+            // A surrogate pair split between two calls
+            char high = a.pendingHigh;
+            a.pendingHigh = 0;
+            char low = text.charAt(i);
+            if (Character.isLowSurrogate(low)) {
+                a.content(low);
+                step(a, codePointClass(Character.toCodePoint(high, low)), high, low);
+                i++;
+            } else {
+                endWord(a);
+            }
+        }
+        for (; i < end; i++) {
+            char c = text.charAt(i);
+            int type = c < classes.length ? classes[c] : LETTER;
+            if (type == SPACE) {
+                if (a.wordClass != NONE || a.cjkPrevious >= 0) {
+                    endWord(a);
+                }
+                a.whitespace(c);
+                continue;
+            }
+            a.content(c);
+            if (type == LETTER && a.wordClass == LETTER && a.pendingMid == 0) {
+                a.appendToken(c);
+            } else if (type != HIGH_SURROGATE) {
+                step(a, type, c, (char) 0);
+            } else if (i + 1 < end) {
+                char low = text.charAt(i + 1);
+                if (Character.isLowSurrogate(low)) {
+                    a.content(low);
+                    step(a, codePointClass(Character.toCodePoint(c, low)), c, low);
+                    i++;
+                } else {
+                    endWord(a);
+                }
+            } else {
+                a.pendingHigh = c;
+            }
+        }
+    }
+
+    @Override
+    public final void finish(TextAnalyzer a) {
+        a.pendingHigh = 0;
+        endWord(a);
+    }
+
+    // Handles one character (or surrogate pair, with low != 0) of class type
+    private void step(TextAnalyzer a, int type, char c, char low) {
+        if (type == IDEOGRAPH || (type == KATAKANA && bigrams)) {
+            ideograph(a, c, low);
+            return;
+        }
+        if (a.cjkPrevious >= 0) {
+            if (type == EXTEND) {
+                return; // a mark on a CJK character
+            }
+            endCjkRun(a);
+        }
+        int previous = a.wordClass;
+        switch (type) {
+            case LETTER:
+            case DIGIT:
+            case KATAKANA:
+            case EXTEND_NUM_LET:
+                if (previous != NONE && joins(previous, a.pendingMid == 0 ? NONE : a.pendingMidClass, type)) {
+                    if (a.pendingMid != 0) {
+                        a.appendToken(a.pendingMid);
+                        a.pendingMid = 0;
+                    }
+                } else {
+                    endWord(a);
+                    a.beginToken();
+                    a.tokenIsWord = false;
+                }
+                append(a, type, c, low);
+                a.wordClass = type;
+                if (type != EXTEND_NUM_LET) {
+                    a.tokenIsWord = true;
+                }
+                break;
+            case MID_LETTER:
+            case MID_NUM:
+            case MID_NUM_LET:
+                if (a.pendingMid == 0 && bridges(previous, type)) {
+                    // Joins only if the same kind of character follows
+                    a.pendingMid = c;
+                    a.pendingMidClass = type;
+                } else {
+                    endWord(a);
+                }
+                break;
+            case EXTEND:
+                if (previous != NONE && a.pendingMid == 0) {
+                    append(a, type, c, low);
+                } else {
+                    endWord(a);
+                }
+                break;
+            default:
+                endWord(a);
+                break;
+        }
+    }
+
+    private static void append(TextAnalyzer a, int type, char c, char low) {
+        a.appendToken(c);
+        if (low != 0) {
+            a.appendToken(low);
+        }
+        if (type == DIGIT || type == EXTEND_NUM_LET) {
+            a.tokenAlphabetic = false;
+        }
+    }
+
+    // Whether a character of class next continues a token ending in previous, across mid if any
+    private static boolean joins(int previous, int mid, int next) {
+        switch (mid) {
+            case NONE:
+                if (next == KATAKANA) {
+                    return previous == KATAKANA || previous == EXTEND_NUM_LET;
+                }
+                if (next == EXTEND_NUM_LET) {
+                    return true;
+                }
+                return previous != KATAKANA;
+            case MID_LETTER:
+                return previous == LETTER && next == LETTER;
+            case MID_NUM:
+                return previous == DIGIT && next == DIGIT;
+            default:
+                return previous == next && (next == LETTER || next == DIGIT);
+        }
+    }
+
+    private static boolean bridges(int previous, int mid) {
+        switch (mid) {
+            case MID_LETTER:
+                return previous == LETTER;
+            case MID_NUM:
+                return previous == DIGIT;
+            default:
+                return previous == LETTER || previous == DIGIT;
+        }
+    }
+
+    private void ideograph(TextAnalyzer a, char c, char low) {
+        if (a.wordClass != NONE) {
+            endWord(a);
+        }
+        if (!bigrams) {
+            a.beginToken();
+            append(a, IDEOGRAPH, c, low);
+            a.endToken(true);
+            return;
+        }
+        // Each character is a word, as word processors count CJK text; the pairs are the tokens
+        a.countWord();
+        int codePoint = low == 0 ? c : Character.toCodePoint(c, low);
+        if (a.cjkPrevious >= 0) {
+            a.beginToken();
+            appendCodePoint(a, a.cjkPrevious);
+            appendCodePoint(a, codePoint);
+            a.endToken(false);
+            a.cjkPaired = true;
+        }
+        a.cjkPrevious = codePoint;
+    }
+
+    // Ends a run of CJK characters; a run of one is a token of its own
+    private static void endCjkRun(TextAnalyzer a) {
+        if (!a.cjkPaired) {
+            a.beginToken();
+            appendCodePoint(a, a.cjkPrevious);
+            a.endToken(false);
+        }
+        a.cjkPrevious = -1;
+        a.cjkPaired = false;
+    }
+
+    private static void appendCodePoint(TextAnalyzer a, int codePoint) {
+        if (Character.isBmpCodePoint(codePoint)) {
+            a.appendToken((char) codePoint);
+        } else {
+            a.appendToken(Character.highSurrogate(codePoint));
+            a.appendToken(Character.lowSurrogate(codePoint));
+        }
+    }
+
+    // Ends the token in progress, dropping a trailing apostrophe or period
+    private static void endWord(TextAnalyzer a) {
+        if (a.wordClass != NONE) {
+            if (a.tokenIsWord) {
+                a.endToken(true);
+            }
+            a.wordClass = NONE;
+            a.pendingMid = 0;
+        }
+        if (a.cjkPrevious >= 0) {
+            endCjkRun(a);
+        }
+    }
+
+    /** Class of {@code c} in the full Unicode table. */
+    static int unicodeClass(char c) {
+        return Tables.UNICODE[c];
+    }
+
+    static int codePointClass(int codePoint) {
+        if (codePoint == '\'' || codePoint == '.' || codePoint == 0x2018 || codePoint == 0x2019
+                || codePoint == 0x2024 || codePoint == 0xFE52 || codePoint == 0xFF07 || codePoint == 0xFF0E) {
+            return MID_NUM_LET;
+        }
+        if (codePoint == 0xB7 || codePoint == 0x387 || codePoint == 0x5F4 || codePoint == 0x2027
+                || codePoint == 0xFE13 || codePoint == 0xFE55 || codePoint == 0xFF1A) {
+            return MID_LETTER;
+        }
+        if (codePoint == ',' || codePoint == ';' || codePoint == 0x37E || codePoint == 0x589
+                || codePoint == 0x60C || codePoint == 0x60D || codePoint == 0x66C || codePoint == 0x7F8
+                || codePoint == 0x2044 || codePoint == 0xFE10 || codePoint == 0xFE14 || codePoint == 0xFE50
+                || codePoint == 0xFE54 || codePoint == 0xFF0C || codePoint == 0xFF1B) {
+            return MID_NUM;
+        }
+        if (codePoint == 0x30FC || codePoint == 0xFF70 || codePoint == 0x3031 || codePoint == 0x3032
+                || codePoint == 0x3033 || codePoint == 0x3034 || codePoint == 0x3035 || codePoint == 0x309B
+                || codePoint == 0x309C || codePoint == 0x30A0 || codePoint == 0xFF9E || codePoint == 0xFF9F) {
+            return KATAKANA;
+        }
+        if (codePoint == 0x200B) {
+            return OTHER; // zero width space is a break, not a format character
+        }
+        int type = Character.getType(codePoint);
+        switch (type) {
+            case Character.NON_SPACING_MARK:
+            case Character.ENCLOSING_MARK:
+            case Character.COMBINING_SPACING_MARK:
+            case Character.FORMAT:
+                return EXTEND;
+            case Character.DECIMAL_DIGIT_NUMBER:
+                return DIGIT;
+            case Character.CONNECTOR_PUNCTUATION:
+                return EXTEND_NUM_LET;
+            case Character.UPPERCASE_LETTER:
+            case Character.LOWERCASE_LETTER:
+            case Character.TITLECASE_LETTER:
+            case Character.MODIFIER_LETTER:
+            case Character.OTHER_LETTER:
+            case Character.LETTER_NUMBER:
+                break;
+            default:
+                return OTHER;
+        }
+        switch (Character.UnicodeScript.of(codePoint)) {
+            case HAN:
+            case HIRAGANA:
+                return IDEOGRAPH;
+            case KATAKANA:
+                return KATAKANA;
+            default:
+                return LETTER;
+        }
+    }
+
+    // Separate from the tokenizer classes, which are created while Tokenizer is initialized
+    // and may need the tables before WordBreakTokenizer itself is fully initialized
+    static final class Tables {
+        static final byte[] ASCII = build(0x80);
+        static final byte[] UNICODE = build(0x10000);
+
+        private Tables() {
+        }
+
+        private static byte[] build(int size) {
+            byte[] classes = new byte[size];
+            for (int c = 0; c < size; c++) {
+                if (TextAnalyzer.isWhitespace((char) c)) {
+                    classes[c] = SPACE;
+                } else if (Character.isHighSurrogate((char) c)) {
+                    classes[c] = HIGH_SURROGATE;
+                } else if (Character.isLowSurrogate((char) c)) {
+                    classes[c] = OTHER; // unpaired
+                } else {
+                    classes[c] = (byte) codePointClass(c);
+                }
+            }
+            return classes;
+        }
+    }
+}
@@ -0,0 +1,322 @@
+import java.util.Arrays;
+
+/**
+ * Open-addressing table of lowercase tokens and their counts.
+ *
+ * Token characters are copied once, the first time a token is seen, into a shared char
+ * arena; entries refer to it by offset and length, so there is no String or boxed Integer
+ * per distinct token. Lookups compare the probe buffer against the arena directly. Entries
+ * are kept in first-seen order, which is what "longest word" ties and the exports rely on.
+ */
+public final class WordCountTable {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    // Hash index: slot -> entry index + 1 (0 means empty)
+    private int[] slots = new int[INITIAL_CAPACITY];
+
+    // Entries in insertion order
+    private int[] offsets = new int[INITIAL_CAPACITY / 2];
+    private int[] lengths = new int[INITIAL_CAPACITY / 2];
+    private int[] hashes = new int[INITIAL_CAPACITY / 2];
+    private int[] counts = new int[INITIAL_CAPACITY / 2];
+    private boolean[] alphabetic = new boolean[INITIAL_CAPACITY / 2];
+    private int entries;
+    private int live;
+
+    // Characters of all tokens, back to back
+    private char[] arena = new char[INITIAL_CAPACITY * 4];
+    private int arenaLength;
+
+    /**
+     * Adds {@code delta} occurrences of the token held in {@code buf[offset, offset + length)}
+     * and returns its entry, which stays the same for as long as the table exists.
+     */
+    int add(char[] buf, int offset, int length, int hash, boolean isAlphabetic, int delta) {
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        while (true) {
+            int ref = slots[slot];
+            if (ref == 0) {
+                break;
+            }
+            int entry = ref - 1;
+            if (hashes[entry] == hash && lengths[entry] == length
+                    && Arrays.equals(arena, offsets[entry], offsets[entry] + length, buf, offset, offset + length)) {
+                increment(entry, delta);
+                return entry;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return insert(slot, buf, offset, length, hash, isAlphabetic, delta);
+    }
+
+    /** Mixes the polynomial hash of a token's characters ({@code 31 * h + c}) into the hash tokens are added with. */
+    static int spread(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /** Entry of {@code word}, lowercased as it was counted, or -1 if it was never added. */
+    int find(String word) {
+        int length = word.length();
+        int h = 0;
+        for (int i = 0; i < length; i++) {
+            h = 31 * h + word.charAt(i);
+        }
+        int hash = spread(h);
+        int mask = slots.length - 1;
+        for (int slot = hash & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+            int entry = slots[slot] - 1;
+            if (hashes[entry] == hash && lengths[entry] == length && matches(entry, word)) {
+                return entry;
+            }
+        }
+        return -1;
+    }
+
+    private boolean matches(int entry, String word) {
+        int offset = offsets[entry];
+        for (int i = 0; i < word.length(); i++) {
+            if (arena[offset + i] != word.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Adds every count of {@code other}, multiplied by {@code sign}, to this table. */
+    void merge(WordCountTable other, int sign) {
+        for (int i = 0; i < other.entries; i++) {
+            if (other.counts[i] != 0) {
+                add(other.arena, other.offsets[i], other.lengths[i], other.hashes[i],
+                    other.alphabetic[i], other.counts[i] * sign);
+            }
+        }
+    }
+
+    /**
+     * Same as {@link #merge} but also takes over {@code other}'s entries whose count is zero,
+     * and returns where each of its entries is in this table, to carry over what refers to them.
+     */
+    int[] mergeEntries(WordCountTable other, int sign) {
+        int[] entryMap = new int[other.entries];
+        for (int i = 0; i < other.entries; i++) {
+            entryMap[i] = add(other.arena, other.offsets[i], other.lengths[i], other.hashes[i],
+                other.alphabetic[i], other.counts[i] * sign);
+        }
+        return entryMap;
+    }
+
+    private int insert(int slot, char[] buf, int offset, int length, int hash, boolean isAlphabetic, int delta) {
+        if (entries == offsets.length) {
+            growEntries();
+        }
+        if (arenaLength + length > arena.length) {
+            arena = Arrays.copyOf(arena, Math.max(arena.length * 2, arenaLength + length));
+        }
+        System.arraycopy(buf, offset, arena, arenaLength, length);
+
+        int entry = entries++;
+        offsets[entry] = arenaLength;
+        lengths[entry] = length;
+        hashes[entry] = hash;
+        alphabetic[entry] = isAlphabetic;
+        arenaLength += length;
+        slots[slot] = entry + 1;
+        increment(entry, delta);
+
+        if (entries * 2 > slots.length) {
+            rehash(slots.length * 2);
+        }
+        return entry;
+    }
+
+    private void increment(int entry, int delta) {
+        int before = counts[entry];
+        counts[entry] = before + delta;
+        if (before <= 0 && counts[entry] > 0) {
+            live++;
+        } else if (before > 0 && counts[entry] <= 0) {
+            live--;
+        }
+    }
+
+    private void growEntries() {
+        int capacity = offsets.length * 2;
+        offsets = Arrays.copyOf(offsets, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+        hashes = Arrays.copyOf(hashes, capacity);
+        counts = Arrays.copyOf(counts, capacity);
+        alphabetic = Arrays.copyOf(alphabetic, capacity);
+    }
+
+    private void rehash(int capacity) {
+        int[] newSlots = new int[capacity];
+        int mask = capacity - 1;
+        for (int entry = 0; entry < entries; entry++) {
+            int slot = hashes[entry] & mask;
+            while (newSlots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            newSlots[slot] = entry + 1;
+        }
+        slots = newSlots;
+    }
+
+    /** Number of distinct tokens currently counted. */
+    public int size() {
+        return live;
+    }
+
+    /** Number of entries, including ones whose count dropped to zero. */
+    public int entryCount() {
+        return entries;
+    }
+
+    /** Creates a String for the token; meant for display and export, not for counting. */
+    public String word(int entry) {
+        return new String(arena, offsets[entry], lengths[entry]);
+    }
+
+    /** Characters of every token; entry's are at {@link #offset(int)}, for writing without a String. */
+    char[] arena() {
+        return arena;
+    }
+
+    int offset(int entry) {
+        return offsets[entry];
+    }
+
+    /** The token's hash as computed by the analyzer, for copying entries between tables. */
+    int hash(int entry) {
+        return hashes[entry];
+    }
+
+    public int wordLength(int entry) {
+        return lengths[entry];
+    }
+
+    public int count(int entry) {
+        return counts[entry];
+    }
+
+    /** True if the token is made of letters only, in any script. */
+    public boolean isAlphabetic(int entry) {
+        return alphabetic[entry];
+    }
+
+    /** True for entries that belong in the frequency table: alphabetic and still counted. */
+    public boolean isFrequencyEntry(int entry) {
+        return alphabetic[entry] && counts[entry] > 0;
+    }
+
+    /** Mean token length, weighted by count; O(distinct tokens). */
+    public double averageLength() {
+        long characters = 0;
+        long tokens = 0;
+        for (int entry = 0; entry < entries; entry++) {
+            if (counts[entry] > 0) {
+                characters += (long) lengths[entry] * counts[entry];
+                tokens += counts[entry];
+            }
+        }
+        return tokens == 0 ? 0 : (double) characters / tokens;
+    }
+
+    /** Longest alphabetic token, first-seen on ties. */
+    public String longestWord() {
+        int longest = -1;
+        for (int entry = 0; entry < entries; entry++) {
+            if (isFrequencyEntry(entry) && (longest < 0 || lengths[entry] > lengths[longest])) {
+                longest = entry;
+            }
+        }
+        return longest < 0 ? "" : word(longest);
+    }
+
+    /** Frequency entries ordered by descending count, first-seen first on ties. */
+    public int[] sortedByCount() {
+        long[] keys = new long[entries];
+        int size = 0;
+        for (int entry = 0; entry < entries; entry++) {
+            if (isFrequencyEntry(entry)) {
+                keys[size++] = rankKey(entry);
+            }
+        }
+        Arrays.sort(keys, 0, size);
+        return toEntries(keys, size);
+    }
+
+    /**
+     * The {@code k} most frequent entries, in the same order as {@link #sortedByCount()}.
+     * Uses a bounded heap, so it costs O(n log k) rather than a full sort.
+     */
+    public int[] topK(int k) {
+        if (k <= 0) {
+            return new int[0];
+        }
+        // Max-heap on rank key: the root is the worst entry kept so far
+        long[] heap = new long[Math.min(k, Math.max(live, 1))];
+        int size = 0;
+        for (int entry = 0; entry < entries; entry++) {
+            if (!isFrequencyEntry(entry)) {
+                continue;
+            }
+            long key = rankKey(entry);
+            if (size < heap.length) {
+                heap[size] = key;
+                siftUp(heap, size++);
+            } else if (key < heap[0]) {
+                heap[0] = key;
+                siftDown(heap, 0, size);
+            }
+        }
+        Arrays.sort(heap, 0, size);
+        return toEntries(heap, size);
+    }
+
+    // Higher counts sort first, entry index breaks ties
+    private long rankKey(int entry) {
+        return ((long) (Integer.MAX_VALUE - counts[entry]) << 32) | entry;
+    }
+
+    static int[] toEntries(long[] keys, int size) {
+        int[] sorted = new int[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = (int) keys[i];
+        }
+        return sorted;
+    }
+
+    static void siftUp(long[] heap, int index) {
+        long key = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent] >= key) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = key;
+    }
+
+    static void siftDown(long[] heap, int index, int size) {
+        long key = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1] > heap[child]) {
+                child++;
+            }
+            if (key >= heap[child]) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = key;
+    }
+}
@@ -1,8 +1,30 @@
+import java.util.Arrays;
 import javax.swing.SwingUtilities;
 import javax.swing.UIManager;
 
 public class WordCounterApp {
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--batch")) {
+            // Headless: decided before any Swing class is touched, so AWT is never loaded
+            System.setProperty("java.awt.headless", "true");
+            System.exit(BatchCounter.run(Arrays.copyOfRange(args, 1, args.length)));
+        }
+
+        if (args.length > 0 && args[0].equals("--serve")) {
+            // Headless HTTP service on localhost; runs until the process is stopped
+            System.setProperty("java.awt.headless", "true");
+            PerformanceMetrics.registerMBeans();
+            int status = AnalysisServer.run(Arrays.copyOfRange(args, 1, args.length));
+            if (status != 0) {
+                System.exit(status);
+            }
+            return;
+        }
+
+        // Phase timings are readable over JMX (jconsole, VisualVM) as well as in the GUI; batch
+        // mode prints them instead
+        PerformanceMetrics.registerMBeans();
+
         try {
             // Set system look and feel
             UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
@@ -4,23 +4,30 @@ import java.io.*;
 import javax.swing.*;
 import javax.swing.border.*;
 import javax.swing.filechooser.FileNameExtensionFilter;
+import javax.swing.table.DefaultTableModel;
 import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Set;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Comparator;
-import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.text.PDFTextStripper;
-import org.apache.poi.xwpf.extractor.XWPFWordExtractor;
-import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
 import java.awt.datatransfer.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.AbstractDocument;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
 import javax.swing.text.DefaultCaret;
 import javax.swing.JFrame;
 import java.util.List;
+import java.util.ArrayList;
+import java.util.function.Consumer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntConsumer;
 import java.awt.dnd.DropTarget;
 import java.awt.dnd.DropTargetDropEvent;
 import java.awt.dnd.DnDConstants;
+import java.awt.geom.Rectangle2D;
 
 public class WordCounterGUI extends JFrame {
     private JTextArea textArea;
@@ -45,20 +52,52 @@ public class WordCounterGUI extends JFrame {
     // Add these as class fields
     private JLabel uniqueWordsLabel;
     private JLabel longestWordLabel;
-    private Map<String, Integer> wordFrequencyMap;
+    private IncrementalTextStats liveStats;
+    private final AnalysisScheduler analysisScheduler = new AnalysisScheduler(150);
+    private long analyzedVersion;
     private JProgressBar progressBar;
     private JPanel previewPanel;
+    private final FilePreviewService previewService = new FilePreviewService();
     private Timer progressTimer;
-    private long totalBytes;
-    private long processedBytes;
-    private int wordCount;
-    private int charCount;
-    private int sentenceCount;
-    private int paragraphCount;
-    private double readingTime;
-    private double speakingTime;
-    private String longestWord;
-    private int uniqueWordCount;
+    // Read by every view; replaced when the document changes or is counted differently
+    private AnalysisSnapshot snapshot;
+    // Views waiting for the background recount of a stale document
+    private final List<Consumer<AnalysisSnapshot>> awaitingSnapshot = new ArrayList<>();
+
+    private static final String PLACEHOLDER_TEXT = "Type or paste your text here...";
+
+    // Files larger than this are streamed through the analyzer instead of loaded into the editor
+    private static final long EDITOR_LOAD_LIMIT = 8L * 1024 * 1024;
+    private static final int STREAMED_PREVIEW_CHARS = 64 * 1024;
+    // Longest phrase counted for the Phrases tab and the CSV export: bigrams and trigrams
+    private static final int PHRASE_LENGTH = 3;
+    // Estimated unique words: sketch precision, and counters kept for the top words of streamed files
+    private static final int UNIQUE_WORDS_PRECISION = HyperLogLog.DEFAULT_PRECISION;
+    private static final int STREAMED_TOP_WORDS = 8192;
+    private boolean estimateUniqueWords;
+    // Keyword in context: occurrences listed per word, and characters shown either side of one
+    private static final int OCCURRENCES_SHOWN = 1000;
+    private static final int CONTEXT_CHARS = 40;
+    // Positions indexed on demand for an analysis that has none, and the document version they are of
+    private PositionIndex builtPositions;
+    private long builtPositionsVersion = -1;
+    private SwingWorker<PositionIndex, Void> positionsWorker;
+    private File streamedFile;
+    private TextStats streamedStats;
+    private JMenuItem loadIntoEditorItem;
+    private JCheckBoxMenuItem exportSortedItem;
+    // Large files are shown in a viewer over the mapped text instead of the editor
+    private JPanel editorCards;
+    private LargeTextViewer largeTextViewer;
+    private File streamedTempFile;
+
+    // Analyses of opened files, so reopening an unchanged file skips extraction
+    private static final long ANALYSIS_CACHE_LIMIT = 256L * 1024 * 1024;
+    private final AnalysisCache analysisCache =
+        new AnalysisCache(AnalysisCache.defaultDirectory(), ANALYSIS_CACHE_LIMIT, false);
+
+    // Tokenizer chosen in the Analysis menu; null picks one per document
+    private Tokenizer tokenizerChoice;
 
     public WordCounterGUI() {
         // Set up the frame
@@ -104,13 +143,26 @@ public class WordCounterGUI extends JFrame {
             BorderFactory.createEmptyBorder(15, 15, 15, 15),
             BorderFactory.createEmptyBorder(5, 5, 5, 5)));
 
+        // Keep statistics up to date edit by edit instead of rescanning the whole text
+        liveStats = IncrementalTextStats.install((AbstractDocument) textArea.getDocument(), PHRASE_LENGTH);
+        analysisScheduler.setPhraseLength(PHRASE_LENGTH);
+        analysisScheduler.setIndexPositions(true);
+
         // Scroll pane with custom styling
         JScrollPane scrollPane = new JScrollPane(textArea);
         scrollPane.setBorder(new CompoundBorder(
             BorderFactory.createLineBorder(new Color(200, 200, 205), 1),
             BorderFactory.createEmptyBorder(2, 2, 2, 2)
         ));
-        mainPanel.add(scrollPane, BorderLayout.CENTER);
+
+        largeTextViewer = new LargeTextViewer();
+        largeTextViewer.setColors(LIGHT_SECONDARY, LIGHT_TEXT);
+        largeTextViewer.setBorder(BorderFactory.createLineBorder(new Color(200, 200, 205), 1));
+
+        editorCards = new JPanel(new CardLayout());
+        editorCards.add(scrollPane, "editor");
+        editorCards.add(largeTextViewer, "viewer");
+        mainPanel.add(editorCards, BorderLayout.CENTER);
 
         // Stats panel
         JPanel statsPanel = new JPanel(new GridLayout(2, 3, 15, 10));
@@ -176,13 +228,17 @@ public class WordCounterGUI extends JFrame {
         JMenuItem openItem = new JMenuItem("Open");
         JMenuItem saveItem = new JMenuItem("Save");
         JMenuItem exitItem = new JMenuItem("Exit");
+        loadIntoEditorItem = new JMenuItem("Load into Editor");
+        loadIntoEditorItem.setEnabled(false);
 
         openItem.addActionListener(e -> openFile());
         saveItem.addActionListener(e -> saveFile());
         exitItem.addActionListener(e -> System.exit(0));
+        loadIntoEditorItem.addActionListener(e -> processFile(streamedFile, true));
 
         fileMenu.add(openItem);
         fileMenu.add(saveItem);
+        fileMenu.add(loadIntoEditorItem);
         fileMenu.addSeparator();
         fileMenu.add(exitItem);
         menuBar.add(fileMenu);
@@ -190,19 +246,152 @@ public class WordCounterGUI extends JFrame {
         JMenu exportMenu = new JMenu("Export");
         exportMenu.setFont(new Font("Segoe UI", Font.PLAIN, 14));
 
-        JMenuItem exportTextItem = new JMenuItem("Export Statistics to TXT");
-        JMenuItem exportCsvItem = new JMenuItem("Export Analysis to CSV");
-        
-        exportTextItem.addActionListener(e -> exportStats("txt"));
-        exportCsvItem.addActionListener(e -> exportStats("csv"));
-        
-        exportMenu.add(exportTextItem);
-        exportMenu.add(exportCsvItem);
+        for (StatsExporter.Format format : StatsExporter.Format.values()) {
+            JMenuItem exportItem = new JMenuItem("Export " + format + "...");
+            exportItem.addActionListener(e -> exportStats(format));
+            exportMenu.add(exportItem);
+        }
+        exportMenu.addSeparator();
+        // Unsorted exports stream the table as it is, without ranking it first
+        exportSortedItem = new JCheckBoxMenuItem("Sort by Frequency", true);
+        exportMenu.add(exportSortedItem);
         menuBar.add(exportMenu);
 
+        JMenu analysisMenu = new JMenu("Analysis");
+        analysisMenu.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        JMenu tokenizerMenu = new JMenu("Tokenizer");
+        ButtonGroup tokenizerGroup = new ButtonGroup();
+        JRadioButtonMenuItem autoItem = new JRadioButtonMenuItem("Detect per Document", true);
+        autoItem.addActionListener(e -> setTokenizerChoice(null));
+        tokenizerGroup.add(autoItem);
+        tokenizerMenu.add(autoItem);
+        for (Tokenizer tokenizer : Tokenizer.all()) {
+            JRadioButtonMenuItem item = new JRadioButtonMenuItem(tokenizer.toString());
+            item.addActionListener(e -> setTokenizerChoice(tokenizer));
+            tokenizerGroup.add(item);
+            tokenizerMenu.add(item);
+        }
+        analysisMenu.add(tokenizerMenu);
+        // Estimated counts take fixed memory: streamed files keep no vocabulary at all
+        JMenu uniqueWordsMenu = new JMenu("Unique Words");
+        ButtonGroup uniqueWordsGroup = new ButtonGroup();
+        JRadioButtonMenuItem exactItem = new JRadioButtonMenuItem("Exact", true);
+        exactItem.addActionListener(e -> estimateUniqueWords = false);
+        JRadioButtonMenuItem estimatedItem = new JRadioButtonMenuItem("Estimated (HyperLogLog)");
+        estimatedItem.addActionListener(e -> estimateUniqueWords = true);
+        uniqueWordsGroup.add(exactItem);
+        uniqueWordsGroup.add(estimatedItem);
+        uniqueWordsMenu.add(exactItem);
+        uniqueWordsMenu.add(estimatedItem);
+        analysisMenu.add(uniqueWordsMenu);
+        JMenuItem performanceItem = new JMenuItem("Performance...");
+        performanceItem.addActionListener(e -> showPerformanceDialog());
+        analysisMenu.add(performanceItem);
+        menuBar.add(analysisMenu);
+
         setJMenuBar(menuBar);
     }
 
+    /** Live view of {@link PerformanceMetrics}, refreshed every second while open. */
+    private void showPerformanceDialog() {
+        String[] columnNames = {"Phase", "Runs", "Total ms", "Mean ms", "p99 ms", "Max ms", "Over budget",
+            "Throughput", "Tokens/s", "Allocated MB"};
+        DefaultTableModel model = new DefaultTableModel(columnNames, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        List<PhaseMetrics> phases = PerformanceMetrics.phases();
+        for (int row = 0; row < phases.size(); row++) {
+            model.addRow(new Object[columnNames.length]);
+        }
+        JLabel memoryLabel = new JLabel(" ");
+        Runnable refresh = () -> {
+            for (int row = 0; row < phases.size(); row++) {
+                PhaseMetrics phase = phases.get(row);
+                model.setValueAt(phase.getName(), row, 0);
+                model.setValueAt(phase.getCount(), row, 1);
+                model.setValueAt(String.format("%.1f", phase.getTotalMillis()), row, 2);
+                model.setValueAt(String.format("%.2f", phase.getMeanMillis()), row, 3);
+                model.setValueAt(String.format("%.2f", phase.getP99Millis()), row, 4);
+                model.setValueAt(String.format("%.2f", phase.getMaxMillis()), row, 5);
+                model.setValueAt(String.format("%d (> %.0f ms)", phase.getOverBudget(), phase.getBudgetMillis()),
+                    row, 6);
+                model.setValueAt(formatRate(phase.getUnitsPerSecond(), phase.getUnit()), row, 7);
+                model.setValueAt(phase.getTokens() == 0 ? "" : formatRate(phase.getTokensPerSecond(), ""), row, 8);
+                model.setValueAt(String.format("%.1f", phase.getAllocatedBytes() / 1048576.0), row, 9);
+            }
+            Runtime runtime = Runtime.getRuntime();
+            long collections = 0;
+            long collectionMillis = 0;
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                collections += Math.max(0, gc.getCollectionCount());
+                collectionMillis += Math.max(0, gc.getCollectionTime());
+            }
+            memoryLabel.setText(String.format("Heap: %.0f of %.0f MB used    GC: %d collections, %d ms",
+                (runtime.totalMemory() - runtime.freeMemory()) / 1048576.0, runtime.maxMemory() / 1048576.0,
+                collections, collectionMillis));
+        };
+        refresh.run();
+
+        JDialog dialog = new JDialog(this, "Performance", false);
+        dialog.setLayout(new BorderLayout(10, 10));
+        JTable table = new JTable(model);
+        table.setFillsViewportHeight(true);
+        dialog.add(new JScrollPane(table), BorderLayout.CENTER);
+
+        JButton resetButton = new JButton("Reset");
+        resetButton.addActionListener(e -> {
+            PerformanceMetrics.resetAll();
+            refresh.run();
+        });
+        JButton closeButton = new JButton("Close");
+        closeButton.addActionListener(e -> dialog.dispose());
+        JPanel bottomPanel = new JPanel(new BorderLayout());
+        bottomPanel.setBorder(BorderFactory.createEmptyBorder(0, 10, 5, 10));
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttons.add(resetButton);
+        buttons.add(closeButton);
+        bottomPanel.add(memoryLabel, BorderLayout.WEST);
+        bottomPanel.add(buttons, BorderLayout.EAST);
+        dialog.add(bottomPanel, BorderLayout.SOUTH);
+
+        Timer refreshTimer = new Timer(1000, e -> refresh.run());
+        refreshTimer.start();
+        dialog.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                refreshTimer.stop();
+            }
+        });
+        dialog.setSize(820, 260);
+        dialog.setLocationRelativeTo(this);
+        dialog.setVisible(true);
+    }
+
+    private static String formatRate(double perSecond, String unit) {
+        String suffix = unit.isEmpty() ? "/s" : " " + unit + "/s";
+        if (perSecond >= 1e9) {
+            return String.format("%.1f G%s", perSecond / 1e9, suffix);
+        }
+        if (perSecond >= 1e6) {
+            return String.format("%.1f M%s", perSecond / 1e6, suffix);
+        }
+        if (perSecond >= 1e3) {
+            return String.format("%.1f K%s", perSecond / 1e3, suffix);
+        }
+        return String.format("%.0f%s", perSecond, suffix);
+    }
+
+    private void setTokenizerChoice(Tokenizer tokenizer) {
+        tokenizerChoice = tokenizer;
+        // Recounts the editor; opened files are recounted when opened again
+        liveStats.setTokenizer(tokenizer);
+        snapshot = null;
+        updateStats();
+    }
+
     private void openFile() {
         JFileChooser fileChooser = new JFileChooser();
         fileChooser.setFileFilter(new FileNameExtensionFilter("Text files", "txt"));
@@ -213,7 +402,6 @@ public class WordCounterGUI extends JFrame {
                 while ((line = reader.readLine()) != null) {
                     textArea.append(line + "\n");
                 }
-                updateStats();
             } catch (IOException ex) {
                 JOptionPane.showMessageDialog(this, "Error reading file", "Error", JOptionPane.ERROR_MESSAGE);
             }
@@ -232,41 +420,44 @@ public class WordCounterGUI extends JFrame {
         }
     }
 
-    private void exportStats(String format) {
+    private void exportStats(StatsExporter.Format format) {
         JFileChooser fileChooser = new JFileChooser();
         fileChooser.setFileFilter(new FileNameExtensionFilter(
-            format.toUpperCase() + " files", format));
+            format + " (*." + format.getExtension() + ")", format.getExtension()));
         
-        if (fileChooser.showSaveDialog(this) == JFileChooser.APPROVE_OPTION) {
-            try (PrintWriter writer = new PrintWriter(fileChooser.getSelectedFile())) {
-                if (format.equals("txt")) {
-                    writer.println("Text Analysis Results");
-                    writer.println("===================");
-                    writer.println("Words: " + wordCount);
-                    writer.println("Characters: " + charCount);
-                    writer.println("Sentences: " + sentenceCount);
-                    writer.println("Paragraphs: " + paragraphCount);
-                    writer.println("Reading Time: " + readingTime + " minutes");
-                    writer.println("Speaking Time: " + speakingTime + " minutes");
-                } else if (format.equals("csv")) {
-                    writer.println("Word,Frequency,Percentage");
-                    wordFrequencyMap.entrySet().stream()
-                        .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
-                        .forEach(entry -> {
-                            double percentage = (entry.getValue() * 100.0) / wordCount;
-                            writer.printf("%s,%d,%.1f%%\n", 
-                                entry.getKey(), 
-                                entry.getValue(), 
-                                percentage);
-                        });
+        if (fileChooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File target = fileChooser.getSelectedFile();
+        if (!target.getName().contains(".")) {
+            target = new File(target.getPath() + "." + format.getExtension());
+        }
+        Path path = target.toPath();
+        whenCounted(current -> exportStats(format, path, current));
+    }
+
+    private void exportStats(StatsExporter.Format format, Path path, AnalysisSnapshot current) {
+        boolean sorted = exportSortedItem.isSelected();
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        new SwingWorker<Long, Void>() {
+            @Override
+            protected Long doInBackground() throws IOException {
+                return new StatsExporter(current, sorted, this::isCancelled).export(format, path);
+            }
+
+            @Override
+            protected void done() {
+                setCursor(Cursor.getDefaultCursor());
+                try {
+                    get();
+                } catch (Exception ex) {
+                    JOptionPane.showMessageDialog(WordCounterGUI.this, 
+                        "Error exporting file", 
+                        "Error", 
+                        JOptionPane.ERROR_MESSAGE);
                 }
-            } catch (IOException ex) {
-                JOptionPane.showMessageDialog(this, 
-                    "Error exporting file", 
-                    "Error", 
-                    JOptionPane.ERROR_MESSAGE);
             }
-        }
+        }.execute();
     }
 
     private JLabel createStatsLabel(String text) {
@@ -277,20 +468,30 @@ public class WordCounterGUI extends JFrame {
     }
 
     private void setupListeners() {
-        countButton.addActionListener(e -> showAnalysisPopup());
+        countButton.addActionListener(e -> whenCounted(this::showAnalysisPopup));
         clearButton.addActionListener(e -> clearText());
         
-        textArea.addKeyListener(new KeyAdapter() {
+        textArea.getDocument().addDocumentListener(new DocumentListener() {
             @Override
-            public void keyReleased(KeyEvent e) {
+            public void insertUpdate(DocumentEvent e) {
                 updateStats();
             }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                updateStats();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                // Attribute changes don't affect the counts
+            }
         });
 
         textArea.addFocusListener(new FocusAdapter() {
             @Override
             public void focusGained(FocusEvent e) {
-                if (textArea.getText().equals("Type or paste your text here...")) {
+                if (textArea.getText().equals(PLACEHOLDER_TEXT)) {
                     textArea.setText("");
                     textArea.setForeground(isDarkMode ? DARK_TEXT : LIGHT_TEXT);
                 }
@@ -332,6 +533,7 @@ public class WordCounterGUI extends JFrame {
         mainPanel.setBackground(bgColor);
         textArea.setBackground(secondaryColor);
         textArea.setForeground(textColor);
+        largeTextViewer.setColors(secondaryColor, textColor);
         
         // Update all components' colors
         for (Component comp : mainPanel.getComponents()) {
@@ -414,84 +616,105 @@ public class WordCounterGUI extends JFrame {
     }
 
     private void updateStats() {
-        String text = textArea.getText();
-        if (text.equals("Type or paste your text here...")) {
-            text = "";
+        if (liveStats.isStale() && streamedStats == null) {
+            // Too large to count on the EDT, recount in the background once edits settle
+            analysisScheduler.schedule(this::captureText, tokenizerChoice, this::publishStats);
+            return;
         }
 
-        // Word count
-        int wordCount = text.trim().isEmpty() ? 0 : text.trim().split("\\s+").length;
-        
-        // Character count
-        int charCount = text.length();
-        
-        // Sentence count
-        int sentenceCount = text.isEmpty() ? 0 : text.split("[.!?]+").length;
-        
-        // Paragraph count
-        int paragraphCount = text.isEmpty() ? 0 : text.split("\n\\s*\n").length;
-        
-        // Calculate reading time (average reading speed: 200 words per minute)
-        double readingTime = Math.ceil(wordCount / 200.0);
-        
-        // Calculate speaking time (average speaking speed: 130 words per minute)
-        double speakingTime = Math.ceil(wordCount / 130.0);
+        // Counts are maintained incrementally as the document changes; the labels only need the
+        // totals, so typing doesn't take snapshots of the counts that the next edit then copies
+        TextStats stats = streamedStats != null || isPlaceholderShown() ? currentStats() : liveStats.getTotals();
 
-        // Add unique words count
-        String[] words = text.toLowerCase().split("\\s+");
-        Set<String> uniqueWords = new HashSet<>(Arrays.asList(words));
-        int uniqueWordCount = uniqueWords.size();
-        
-        // Find longest word
-        String longestWord = "";
-        if (words.length > 0) {
-            longestWord = Arrays.stream(words)
-                .filter(w -> w.matches("[a-zA-Z]+"))
-                .max(Comparator.comparingInt(String::length))
-                .orElse("");
+        // Update labels
+        wordCountLabel.setText("Words: " + stats.getWords());
+        charCountLabel.setText("Characters: " + stats.getCharacters());
+        sentenceCountLabel.setText("Sentences: " + stats.getSentences());
+        paragraphCountLabel.setText("Paragraphs: " + stats.getParagraphs());
+        readingTimeLabel.setText("Reading Time: " + stats.getReadingTime() + " min");
+        speakingTimeLabel.setText("Speaking Time: " + stats.getSpeakingTime() + " min");
+
+        if (!awaitingSnapshot.isEmpty()) {
+            // Not from inside a document event, as the views may open dialogs
+            SwingUtilities.invokeLater(this::runAwaitingSnapshot);
         }
-        
-        // Word frequency analysis
-        wordFrequencyMap = new HashMap<>();
-        for (String word : words) {
-            if (word.matches("[a-zA-Z]+")) {
-                wordFrequencyMap.merge(word, 1, Integer::sum);
-            }
+    }
+
+    /**
+     * Runs {@code action} with the snapshot of the document as it is now: right away if the
+     * counts are current, otherwise once the background recount of a stale document has been
+     * published. The document is never recounted on the EDT for it.
+     */
+    private void whenCounted(Consumer<AnalysisSnapshot> action) {
+        awaitingSnapshot.add(action);
+        if (liveStats.isStale() && streamedStats == null) {
+            setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+            wordCountLabel.setText("Words: counting...");
+            updateStats();
+        } else {
+            runAwaitingSnapshot();
         }
+    }
 
-        // Update labels
-        wordCountLabel.setText("Words: " + wordCount);
-        charCountLabel.setText("Characters: " + charCount);
-        sentenceCountLabel.setText("Sentences: " + sentenceCount);
-        paragraphCountLabel.setText("Paragraphs: " + paragraphCount);
-        readingTimeLabel.setText("Reading Time: " + readingTime + " min");
-        speakingTimeLabel.setText("Speaking Time: " + speakingTime + " min");
-
-        this.wordCount = wordCount;
-        this.charCount = charCount;
-        this.sentenceCount = sentenceCount;
-        this.paragraphCount = paragraphCount;
-        this.readingTime = readingTime;
-        this.speakingTime = speakingTime;
-        this.longestWord = longestWord;
-        this.uniqueWordCount = uniqueWordCount;
-    }
-
-    private void showAnalysisPopup() {
-        updateStats();
+    private void runAwaitingSnapshot() {
+        if (awaitingSnapshot.isEmpty() || liveStats.isStale() && streamedStats == null) {
+            return; // edited again in the meantime, the next recount runs them
+        }
+        setCursor(Cursor.getDefaultCursor());
+        AnalysisSnapshot current = snapshot();
+        List<Consumer<AnalysisSnapshot>> actions = new ArrayList<>(awaitingSnapshot);
+        awaitingSnapshot.clear();
+        for (Consumer<AnalysisSnapshot> action : actions) {
+            action.accept(current);
+        }
+    }
 
-        String text = textArea.getText();
-        if (text.equals("Type or paste your text here...")) {
-            text = "";
+    private CharSequence captureText() {
+        if (!liveStats.isStale()) {
+            return null;
         }
+        analyzedVersion = liveStats.getVersion();
+        return textArea.getText();
+    }
 
-        // Get the current counts
-        int wordCount = text.trim().isEmpty() ? 0 : text.trim().split("\\s+").length;
-        int charCount = text.length();
-        int sentenceCount = text.isEmpty() ? 0 : text.split("[.!?]+").length;
-        int paragraphCount = text.isEmpty() ? 0 : text.split("\n\\s*\n").length;
-        double readingTime = Math.ceil(wordCount / 200.0);
-        double speakingTime = Math.ceil(wordCount / 130.0);
+    private void publishStats(TextStats stats) {
+        if (liveStats.reset(stats, analyzedVersion)) {
+            updateStats();
+        }
+    }
+
+    /**
+     * The analysis of the document as it is now. Versioned by the document's edit count, so
+     * until the next edit every caller gets the same snapshot and nothing is counted again.
+     */
+    private AnalysisSnapshot snapshot() {
+        long version = liveStats.getVersion();
+        if (snapshot == null || snapshot.getVersion() != version) {
+            snapshot = new AnalysisSnapshot(currentStats(), version);
+        }
+        return snapshot;
+    }
+
+    private TextStats currentStats() {
+        if (streamedStats != null) {
+            // The editor only shows the start of a streamed file
+            return streamedStats;
+        }
+        if (isPlaceholderShown()) {
+            return TextAnalyzer.analyze("");
+        }
+        // Callers wait for the background recount while the totals are stale, see whenCounted
+        return liveStats.getStats();
+    }
+
+    private boolean isPlaceholderShown() {
+        // Length check first so large documents are never copied just for this
+        return textArea.getDocument().getLength() == PLACEHOLDER_TEXT.length()
+            && textArea.getText().equals(PLACEHOLDER_TEXT);
+    }
+
+    private void showAnalysisPopup(AnalysisSnapshot current) {
+        // The snapshot shared by every view of this version; the text is never copied or re-scanned here
 
         // Create and show the popup dialog with statistics
         JPanel statsPopup = new JPanel();
@@ -509,12 +732,12 @@ public class WordCounterGUI extends JFrame {
 
         // Create and add statistics labels with custom styling
         String[] stats = {
-            "📝 Total Words: " + wordCount,
-            "📊 Characters: " + charCount,
-            "📋 Sentences: " + sentenceCount,
-            "📑 Paragraphs: " + paragraphCount,
-            "⏱️ Estimated Reading Time: " + readingTime + " minutes",
-            "🗣️ Estimated Speaking Time: " + speakingTime + " minutes"
+            "📝 Total Words: " + current.getWords(),
+            "📊 Characters: " + current.getCharacters(),
+            "📋 Sentences: " + current.getSentences(),
+            "📑 Paragraphs: " + current.getParagraphs(),
+            "⏱️ Estimated Reading Time: " + current.getReadingTime() + " minutes",
+            "🗣️ Estimated Speaking Time: " + current.getSpeakingTime() + " minutes"
         };
 
         for (String stat : stats) {
@@ -526,19 +749,18 @@ public class WordCounterGUI extends JFrame {
         }
 
         // Add additional text analysis
-        if (!text.isEmpty()) {
+        if (current.getCharacters() > 0) {
             statsPopup.add(Box.createVerticalStrut(15));
             
             // Average word length
-            double avgWordLength = text.trim().isEmpty() ? 0 : 
-                (double) text.replaceAll("\\s+", "").length() / wordCount;
+            double avgWordLength = current.getAverageWordLength();
             JLabel avgWordLabel = new JLabel(String.format("📏 Average Word Length: %.1f characters", avgWordLength));
             avgWordLabel.setFont(new Font("Segoe UI", Font.PLAIN, 14));
             avgWordLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
             statsPopup.add(avgWordLabel);
             
             // Words per sentence
-            double wordsPerSentence = sentenceCount == 0 ? 0 : (double) wordCount / sentenceCount;
+            double wordsPerSentence = current.getWordsPerSentence();
             JLabel wpsLabel = new JLabel(String.format("📈 Words per Sentence: %.1f", wordsPerSentence));
             wpsLabel.setFont(new Font("Segoe UI", Font.PLAIN, 14));
             wpsLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
@@ -549,12 +771,13 @@ public class WordCounterGUI extends JFrame {
         statsPopup.add(Box.createVerticalStrut(15));
         
         // Unique words
-        JLabel uniqueWordsLabel = new JLabel(String.format("🎯 Unique Words: %d", uniqueWordCount));
+        JLabel uniqueWordsLabel = new JLabel("🎯 Unique Words: " + uniqueWordsText(current));
         uniqueWordsLabel.setFont(new Font("Segoe UI", Font.PLAIN, 14));
         uniqueWordsLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
         statsPopup.add(uniqueWordsLabel);
         
         // Longest word
+        String longestWord = current.getLongestWord();
         if (!longestWord.isEmpty()) {
             JLabel longestWordLabel = new JLabel(String.format("📏 Longest Word: %s (%d letters)", 
                 longestWord, longestWord.length()));
@@ -613,32 +836,78 @@ public class WordCounterGUI extends JFrame {
         dialog.setVisible(true);
     }
 
+    private String uniqueWordsText(AnalysisSnapshot current) {
+        HyperLogLog sketch = estimateUniqueWords || current.isUniqueWordsEstimated()
+            ? current.getUniqueWordSketch(UNIQUE_WORDS_PRECISION) : null;
+        if (sketch == null) {
+            return String.valueOf(current.getUniqueWords());
+        }
+        return String.format("≈%d (±%.1f%%)", sketch.estimate(), sketch.getErrorBound() * 100);
+    }
+
     private void showWordFrequencyDialog() {
+        // Modeless, so it must not see the counts change under it
+        whenCounted(current -> showWordFrequencyDialog(current, "Word Frequency Analysis", true));
+    }
+
+    private void showWordFrequencyDialog(AnalysisSnapshot stats, String title) {
+        showWordFrequencyDialog(stats, title, false);
+    }
+
+    // With occurrences, selecting a word lists where it occurs in the document shown
+    private void showWordFrequencyDialog(AnalysisSnapshot stats, String title, boolean occurrences) {
         // Create frequency table
         String[] columnNames = {"Word", "Frequency", "Percentage"};
-        Object[][] data = wordFrequencyMap.entrySet().stream()
-            .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
-            .limit(20) // Show top 20 words
-            .map(entry -> {
-                double percentage = (entry.getValue() * 100.0) / wordCount;
-                return new Object[]{
-                    entry.getKey(),
-                    entry.getValue(),
-                    String.format("%.1f%%", percentage)
-                };
-            })
-            .toArray(Object[][]::new);
-
-        JTable table = new JTable(data, columnNames);
-        table.setFont(new Font("Segoe UI", Font.PLAIN, 14));
-        table.getTableHeader().setFont(new Font("Segoe UI", Font.BOLD, 14));
+        JTable table = frequencyTable(frequencyRows(stats, 20), columnNames); // Show top 20 words by default
         
         JScrollPane scrollPane = new JScrollPane(table);
         scrollPane.setPreferredSize(new Dimension(400, 300));
+        JComponent wordsPanel = occurrences ? occurrencesPanel(stats, table, scrollPane) : scrollPane;
+
+        // Phrases of each counted length, ranked the same way
+        String[] phraseColumns = {"Phrase", "Frequency", "Percentage"};
+        JComboBox<String> phraseLengthBox = new JComboBox<>();
+        for (int length = 2; length <= stats.getPhraseLength(); length++) {
+            phraseLengthBox.addItem(length + " words");
+        }
+        JTable phraseTable = frequencyTable(phraseRows(stats, 2, 20), phraseColumns);
+        JPanel phrasePanel = new JPanel(new BorderLayout(5, 5));
+        JPanel phraseLengthPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        phraseLengthPanel.add(new JLabel("Phrases of"));
+        phraseLengthPanel.add(phraseLengthBox);
+        phrasePanel.add(phraseLengthPanel, BorderLayout.NORTH);
+        phrasePanel.add(new JScrollPane(phraseTable), BorderLayout.CENTER);
+
+        JTabbedPane tabs = new JTabbedPane();
+        tabs.addTab("Words", wordsPanel);
+        tabs.addTab("Phrases", phrasePanel);
+        if (stats.getPhraseLength() == 0) {
+            tabs.setEnabledAt(1, false);
+            tabs.setToolTipTextAt(1, "Phrases are not counted for approximate or combined statistics");
+        }
 
-        JDialog dialog = new JDialog(this, "Word Frequency Analysis", true);
+        // Let the user pick how many words to show; top-K is cheap even for huge vocabularies
+        JSpinner topSpinner = new JSpinner(new SpinnerNumberModel(20, 1, 100000, 10));
+        Runnable refreshPhrases = () -> phraseTable.setModel(new DefaultTableModel(phraseRows(stats,
+            phraseLengthBox.getSelectedIndex() + 2, (Integer) topSpinner.getValue()), phraseColumns));
+        topSpinner.addChangeListener(e -> {
+            table.setModel(new DefaultTableModel(frequencyRows(stats, (Integer) topSpinner.getValue()), columnNames));
+            refreshPhrases.run();
+        });
+        phraseLengthBox.addActionListener(e -> refreshPhrases.run());
+
+        JPanel topPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        JLabel unitLabel = new JLabel("words");
+        topPanel.add(new JLabel("Show top"));
+        topPanel.add(topSpinner);
+        topPanel.add(unitLabel);
+        tabs.addChangeListener(e -> unitLabel.setText(tabs.getSelectedIndex() == 0 ? "words" : "phrases"));
+
+        // Modeless when it can jump to occurrences, so the text behind it can be seen and used
+        JDialog dialog = new JDialog(this, title, !occurrences);
         dialog.setLayout(new BorderLayout(10, 10));
-        dialog.add(scrollPane, BorderLayout.CENTER);
+        dialog.add(topPanel, BorderLayout.NORTH);
+        dialog.add(tabs, BorderLayout.CENTER);
         
         JButton closeButton = new JButton("Close");
         styleButton(closeButton);
@@ -653,13 +922,279 @@ public class WordCounterGUI extends JFrame {
         dialog.setVisible(true);
     }
 
+    /**
+     * The words table above a keyword-in-context list of the selected word's occurrences;
+     * selecting one shows it in the text. Positions come from the analysis, or are indexed
+     * in the background if it has none.
+     */
+    private JComponent occurrencesPanel(AnalysisSnapshot stats, JTable table, JScrollPane tableScroll) {
+        JLabel status = new JLabel("Select a word to see where it occurs");
+        JList<String> list = new JList<>();
+        list.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 13));
+        // Cells all have the size of this one, so long lists are never measured
+        list.setPrototypeCellValue("m".repeat(2 * CONTEXT_CHARS + 16));
+        list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        File file = streamedFile;
+
+        Runnable showSelected = () -> {
+            int row = table.getSelectedRow();
+            if (row < 0) {
+                return;
+            }
+            String word = (String) table.getValueAt(row, 0);
+            PositionIndex index = positions(stats);
+            if (index == null) {
+                return;
+            }
+            long[] found = index.positions(word, OCCURRENCES_SHOWN);
+            int count = index.count(word);
+            status.setText(count > found.length
+                ? String.format("%,d occurrences of \"%s\", the first %,d listed", count, word, found.length)
+                : String.format("%,d occurrences of \"%s\"", count, word));
+            list.setModel(new Occurrences(found, word.length()));
+        };
+        table.getSelectionModel().addListSelectionListener(e -> {
+            if (!e.getValueIsAdjusting()) {
+                showSelected.run();
+            }
+        });
+        list.addListSelectionListener(e -> {
+            int selected = list.getSelectedIndex();
+            if (e.getValueIsAdjusting() || selected < 0) {
+                return;
+            }
+            if (liveStats.getVersion() != stats.getVersion() || streamedFile != file) {
+                status.setText("The text has changed; reopen this dialog to find words again");
+                return;
+            }
+            Occurrences model = (Occurrences) list.getModel();
+            jumpTo(model.positions[selected], model.length);
+        });
+
+        if (stats.isApproximate()) {
+            status.setText("Occurrences need exact counts (Analysis \u2192 Unique Words \u2192 Exact)");
+        } else if (positions(stats) == null) {
+            if (indexPositions(stats, () -> {
+                status.setText("Select a word to see where it occurs");
+                showSelected.run();
+            })) {
+                status.setText("Indexing word positions...");
+            } else {
+                status.setText("Occurrences are not available for this file");
+            }
+        }
+
+        JPanel occurrencePanel = new JPanel(new BorderLayout(5, 5));
+        occurrencePanel.add(status, BorderLayout.NORTH);
+        occurrencePanel.add(new JScrollPane(list), BorderLayout.CENTER);
+        JSplitPane split = new JSplitPane(JSplitPane.VERTICAL_SPLIT, tableScroll, occurrencePanel);
+        split.setResizeWeight(0.5);
+        split.setPreferredSize(new Dimension(640, 520));
+        return split;
+    }
+
+    // Positions for the text stats describe: its own, or ones indexed for the same version since
+    private PositionIndex positions(AnalysisSnapshot stats) {
+        if (stats.getPositions() != null) {
+            return stats.getPositions();
+        }
+        return builtPositionsVersion == stats.getVersion() ? builtPositions : null;
+    }
+
+    /**
+     * Indexes the positions of the text shown, as of stats' version, off the EDT, and runs
+     * {@code done} on the EDT if the text is still the same. Returns false if the text isn't
+     * at hand: only the head of a streamed file that wasn't mapped.
+     */
+    private boolean indexPositions(AnalysisSnapshot stats, Runnable done) {
+        MappedTextFile mapped = streamedFile == null ? null : largeTextViewer.getText();
+        if (streamedFile != null && mapped == null) {
+            return false;
+        }
+        CharSequence text = mapped == null ? textArea.getText() : null;
+        Tokenizer tokenizer = stats.getTokenizer();
+        long version = stats.getVersion();
+        File file = streamedFile;
+        if (positionsWorker != null) {
+            positionsWorker.cancel(true);
+        }
+        positionsWorker = new SwingWorker<PositionIndex, Void>() {
+            @Override
+            protected PositionIndex doInBackground() throws Exception {
+                if (mapped == null) {
+                    return ParallelTextAnalyzer.analyze(text, tokenizer, 0, true, this::isCancelled).getPositions();
+                }
+                TextAnalyzer analyzer = new TextAnalyzer(tokenizer).indexPositions();
+                MappedTextReader.transfer(mapped.getFile(), analyzer.asWriter());
+                return analyzer.finish().getPositions();
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled() || liveStats.getVersion() != version || streamedFile != file) {
+                    return;
+                }
+                try {
+                    builtPositions = get();
+                    builtPositionsVersion = version;
+                    done.run();
+                } catch (Exception ex) {
+                    // Leave the list empty; the counts are unaffected
+                }
+            }
+        };
+        positionsWorker.execute();
+        return true;
+    }
+
+    // Occurrences of one word, each shown with the text around it when it is painted
+    private final class Occurrences extends AbstractListModel<String> {
+        private static final long serialVersionUID = 1L;
+
+        private final long[] positions;
+        private final int length;
+
+        Occurrences(long[] positions, int length) {
+            this.positions = positions;
+            this.length = length;
+        }
+
+        @Override
+        public int getSize() {
+            return positions.length;
+        }
+
+        @Override
+        public String getElementAt(int index) {
+            return keywordInContext(positions[index], length);
+        }
+    }
+
+    // The occurrence in brackets, with up to CONTEXT_CHARS either side, the brackets lined up from row to row
+    private String keywordInContext(long position, int length) {
+        String before;
+        String after;
+        MappedTextFile mapped = streamedFile == null ? null : largeTextViewer.getText();
+        if (mapped != null) {
+            long offset = mapped.byteOffset(position);
+            // A UTF-8 character takes at most 4 bytes
+            before = mapped.excerpt(offset - CONTEXT_CHARS * 4L, offset);
+            after = mapped.excerpt(offset, offset + (length + CONTEXT_CHARS) * 4L);
+        } else {
+            Document document = textArea.getDocument();
+            int start = (int) Math.min(position, document.getLength());
+            try {
+                before = document.getText(Math.max(0, start - CONTEXT_CHARS), Math.min(start, CONTEXT_CHARS));
+                after = document.getText(start, Math.min(document.getLength() - start, length + CONTEXT_CHARS));
+            } catch (BadLocationException e) {
+                return "";
+            }
+        }
+        before = before.substring(Math.max(0, before.length() - CONTEXT_CHARS)).replaceAll("\\s", " ");
+        after = after.substring(0, Math.min(after.length(), length + CONTEXT_CHARS)).replaceAll("\\s", " ");
+        int end = Math.min(length, after.length());
+        return String.format("%" + CONTEXT_CHARS + "s[%s]%s", before, after.substring(0, end), after.substring(end));
+    }
+
+    // Selects the occurrence in the editor, or highlights it in the large-file viewer
+    private void jumpTo(long position, int length) {
+        if (streamedFile != null) {
+            MappedTextFile mapped = largeTextViewer.getText();
+            if (mapped != null) {
+                largeTextViewer.showOccurrence(mapped.byteOffset(position), length);
+            }
+            return;
+        }
+        int documentLength = textArea.getDocument().getLength();
+        int start = (int) Math.min(position, documentLength);
+        textArea.requestFocusInWindow();
+        textArea.select(start, Math.min(start + length, documentLength));
+        try {
+            Rectangle2D shown = textArea.modelToView2D(start);
+            if (shown != null) {
+                textArea.scrollRectToVisible(shown.getBounds());
+            }
+        } catch (BadLocationException e) {
+            // Out of range only if the text changed, which was checked
+        }
+    }
+
+    private JTable frequencyTable(Object[][] rows, String[] columnNames) {
+        JTable table = new JTable(rows, columnNames);
+        table.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        table.getTableHeader().setFont(new Font("Segoe UI", Font.BOLD, 14));
+        return table;
+    }
+
+    private Object[][] frequencyRows(AnalysisSnapshot stats, int k) {
+        // Approximate counts are shown as upper bounds
+        return rows(stats.getTopWords(k), stats.isApproximate() ? "≤ " : "");
+    }
+
+    private Object[][] phraseRows(AnalysisSnapshot stats, int length, int k) {
+        // Phrase counts that survived pruning are lower bounds
+        return rows(stats.getTopPhrases(length, k), stats.isPhrasesApproximate() ? "≥ " : "");
+    }
+
+    private static Object[][] rows(List<AnalysisSnapshot.WordFrequency> ranked, String bound) {
+        return ranked.stream()
+            .map(word -> new Object[]{
+                word.getWord(),
+                bound + word.getCount(),
+                String.format("%.1f%%", word.getPercentage())
+            })
+            .toArray(Object[][]::new);
+    }
+
     private void clearText() {
+        leaveStreamedMode();
         setPlaceholderText();
-        updateStats();
+    }
+
+    /**
+     * Shows a file that was counted without loading it into the editor: in the large-file
+     * viewer when its text is mapped, otherwise just its head, read-only, in the editor.
+     */
+    private void enterStreamedMode(File file, TextStats stats, String head, MappedTextFile text) {
+        streamedFile = file;
+        streamedStats = stats;
+        snapshot = null;
+        builtPositions = null;
+        loadIntoEditorItem.setEnabled(true);
+        if (text != null) {
+            textArea.setText("");
+            largeTextViewer.setText(text);
+            ((CardLayout) editorCards.getLayout()).show(editorCards, "viewer");
+            return;
+        }
+        textArea.setEditable(false);
+        textArea.setText(stats.getCharacters() > head.length()
+            ? head + "\n\n[Showing the first " + head.length() + " of " + stats.getCharacters()
+                + " characters. Use File \u2192 Load into Editor to edit the whole file.]"
+            : head);
+        textArea.setCaretPosition(0);
+        loadIntoEditorItem.setEnabled(true);
+    }
+
+    private void leaveStreamedMode() {
+        streamedFile = null;
+        streamedStats = null;
+        snapshot = null;
+        builtPositions = null;
+        textArea.setEditable(true);
+        loadIntoEditorItem.setEnabled(false);
+        largeTextViewer.clear();
+        ((CardLayout) editorCards.getLayout()).show(editorCards, "editor");
+        if (streamedTempFile != null) {
+            // Fails while the mapping is still alive on some platforms; deleteOnExit covers that
+            streamedTempFile.delete();
+            streamedTempFile = null;
+        }
     }
 
     private void setPlaceholderText() {
-        textArea.setText("Type or paste your text here...");
+        textArea.setText(PLACEHOLDER_TEXT);
         textArea.setForeground(new Color(150, 150, 150));
     }
 
@@ -669,11 +1204,18 @@ public class WordCounterGUI extends JFrame {
             public synchronized void drop(DropTargetDropEvent evt) {
                 try {
                     evt.acceptDrop(DnDConstants.ACTION_COPY);
-                    List<File> droppedFiles = (List<File>) evt.getTransferable()
-                        .getTransferData(DataFlavor.javaFileListFlavor);
+                    List<File> droppedFiles = new ArrayList<>();
+                    for (Object dropped : (List<?>) evt.getTransferable()
+                            .getTransferData(DataFlavor.javaFileListFlavor)) {
+                        if (dropped instanceof File) {
+                            droppedFiles.add((File) dropped);
+                        }
+                    }
                     
-                    if (!droppedFiles.isEmpty()) {
+                    if (droppedFiles.size() == 1) {
                         processFile(droppedFiles.get(0));
+                    } else if (!droppedFiles.isEmpty()) {
+                        processFiles(droppedFiles);
                     }
                 } catch (Exception ex) {
                     JOptionPane.showMessageDialog(WordCounterGUI.this,
@@ -710,23 +1252,37 @@ public class WordCounterGUI extends JFrame {
         });
         
         fileChooser.setAccessory(previewPanel);
+        fileChooser.setMultiSelectionEnabled(true);
         
         int result = fileChooser.showOpenDialog(this);
+        previewService.cancel();
         if (result == JFileChooser.APPROVE_OPTION) {
-            processFile(fileChooser.getSelectedFile());
+            File[] selectedFiles = fileChooser.getSelectedFiles();
+            if (selectedFiles.length > 1) {
+                processFiles(Arrays.asList(selectedFiles));
+            } else {
+                processFile(fileChooser.getSelectedFile());
+            }
         }
     }
 
     private void showFilePreview(File file, JTextArea previewArea) {
-        try {
-            String preview = getFileContent(file, true);
-            previewArea.setText(preview.substring(0, Math.min(preview.length(), 500)) + "...");
-        } catch (Exception ex) {
-            previewArea.setText("Cannot preview this file type");
-        }
+        // Read in the background, only the start of the file, and cached across choosers
+        previewService.request(file, preview -> {
+            previewArea.setText(preview);
+            previewArea.setCaretPosition(0);
+        });
     }
 
     private void processFile(File file) {
+        processFile(file, false);
+    }
+
+    private void processFile(File file, boolean loadIntoEditor) {
+        // Large files are counted straight from disk; only their start is shown
+        boolean streaming = !loadIntoEditor && file.length() > EDITOR_LOAD_LIMIT;
+        boolean fixedMemory = streaming && estimateUniqueWords;
+
         // Setup progress dialog
         JDialog progressDialog = new JDialog(this, "Reading File...", true);
         progressDialog.setLayout(new BorderLayout(10, 10));
@@ -738,37 +1294,127 @@ public class WordCounterGUI extends JFrame {
         JLabel statusLabel = new JLabel("Reading file...");
         statusLabel.setHorizontalAlignment(SwingConstants.CENTER);
         
+        JButton cancelButton = new JButton("Cancel");
+
         JPanel progressPanel = new JPanel(new BorderLayout(5, 5));
         progressPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
         progressPanel.add(statusLabel, BorderLayout.NORTH);
         progressPanel.add(progressBar, BorderLayout.CENTER);
+        progressPanel.add(cancelButton, BorderLayout.SOUTH);
         
         progressDialog.add(progressPanel);
-        progressDialog.setSize(300, 100);
+        progressDialog.setSize(360, 140);
         progressDialog.setLocationRelativeTo(this);
 
+        // Bytes actually read, reported by the extractor
+        ExtractionProgress progress = new ExtractionProgress();
+        progress.setTotal(file.length());
+        Tokenizer tokenizer = tokenizerChoice;
+
         // Start processing in background
         SwingWorker<String, Integer> worker = new SwingWorker<String, Integer>() {
+            private TextStats stats;
+            private MappedTextFile mappedText;
+            private File tempFile;
+
             @Override
             protected String doInBackground() throws Exception {
-                totalBytes = file.length();
-                processedBytes = 0;
-                return getFileContent(file, false);
+                boolean plainText = FileTextExtractor.extensionOf(file).equals("txt");
+                AnalysisCache.Entry cached = analysisCache.get(file);
+                if (cached != null && (streaming || cached.isComplete())
+                        && (tokenizer == null || cached.getStats().getTokenizer() == tokenizer)) {
+                    stats = cached.getStats();
+                    String text = cached.getText();
+                    if (!streaming) {
+                        return text;
+                    }
+                    if (plainText) {
+                        mappedText = MappedTextFile.open(file, progress);
+                    }
+                    return text.substring(0, Math.min(text.length(), STREAMED_PREVIEW_CHARS));
+                }
+
+                // Read before extracting, so a file changed meanwhile isn't cached as current
+                long size = file.length();
+                long lastModified = file.lastModified();
+                if (streaming) {
+                    TextAnalyzer analyzer = fixedMemory
+                        ? new TextAnalyzer(tokenizer).approximateFrequencies(STREAMED_TOP_WORDS)
+                            .estimateUniqueWords(UNIQUE_WORDS_PRECISION)
+                        // Positions of a whole file would grow with it; they are indexed on first use instead
+                        : new TextAnalyzer(tokenizer).countPhrases(PHRASE_LENGTH);
+                    HeadCapturingWriter head = new HeadCapturingWriter(analyzer.asWriter(), STREAMED_PREVIEW_CHARS);
+                    if (plainText) {
+                        FileTextExtractor.extract(file, head, progress);
+                        mappedText = MappedTextFile.open(file, progress);
+                    } else {
+                        // Keep the extracted text in a temp file for the viewer to map
+                        tempFile = File.createTempFile("wordcounter", ".txt");
+                        tempFile.deleteOnExit();
+                        try (Writer saved = new BufferedWriter(new OutputStreamWriter(
+                                new FileOutputStream(tempFile), StandardCharsets.UTF_8), 1 << 16)) {
+                            FileTextExtractor.extract(file, new TeeWriter(head, saved), progress);
+                        } catch (IOException | RuntimeException ex) {
+                            tempFile.delete();
+                            throw ex;
+                        }
+                        mappedText = MappedTextFile.open(tempFile, progress);
+                    }
+                    stats = analyzer.finish();
+                    analysisCache.put(file, size, lastModified, stats, head.getHead(), false);
+                    return head.getHead();
+                }
+                StringWriter writer = new StringWriter();
+                FileTextExtractor.extract(file, writer, progress);
+                String content = writer.toString();
+                // Count here, in parallel for large files, instead of after loading on the EDT
+                stats = ParallelTextAnalyzer.analyze(content, tokenizer, PHRASE_LENGTH, true, progress::isCancelled);
+                analysisCache.put(file, size, lastModified, stats, content, true);
+                return content;
             }
 
             @Override
             protected void done() {
+                progressTimer.stop();
+                if (isCancelled()) {
+                    // Drop everything read so far; the dialog is already closed
+                    stats = null;
+                    mappedText = null;
+                    if (tempFile != null) {
+                        tempFile.delete();
+                    }
+                    return;
+                }
                 try {
                     String content = get();
+                    PhaseMetrics.Span publishSpan = PerformanceMetrics.PUBLISH.start();
+                    if (streaming) {
+                        leaveStreamedMode();
+                        streamedTempFile = tempFile;
+                        enterStreamedMode(file, stats, content, mappedText);
+                        textArea.setForeground(isDarkMode ? DARK_TEXT : LIGHT_TEXT);
+                        updateStats();
+                        publishSpan.end(1, 0);
+                        showFileInfo(file);
+                        progressDialog.dispose();
+                        return;
+                    }
+                    leaveStreamedMode();
                     textArea.setText(content);
                     textArea.setForeground(isDarkMode ? DARK_TEXT : LIGHT_TEXT);
+                    analysisScheduler.cancel();
+                    liveStats.reset(stats, liveStats.getVersion());
                     updateStats();
-                    
+                    publishSpan.end(1, 0);
+
                     // Show success message
                     showFileInfo(file);
                     
                     progressDialog.dispose();
                 } catch (Exception ex) {
+                    if (tempFile != null && tempFile != streamedTempFile) {
+                        tempFile.delete();
+                    }
                     progressDialog.dispose();
                     JOptionPane.showMessageDialog(WordCounterGUI.this,
                         "Error processing file: " + ex.getMessage(),
@@ -778,10 +1424,26 @@ public class WordCounterGUI extends JFrame {
             }
         };
 
+        cancelButton.addActionListener(e -> {
+            progress.cancel();
+            worker.cancel(true);
+            progressDialog.dispose();
+        });
+        progressDialog.setDefaultCloseOperation(JDialog.DO_NOTHING_ON_CLOSE);
+        progressDialog.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                cancelButton.doClick();
+            }
+        });
+
         // Start progress update timer
         progressTimer = new Timer(100, e -> {
-            int progress = (int) ((processedBytes * 100) / totalBytes);
-            progressBar.setValue(progress);
+            progressBar.setValue(progress.getPercent());
+            statusLabel.setText(String.format("Reading file... %.1f of %.1f MB (%.1f MB/s)",
+                progress.getDone() / 1048576.0,
+                progress.getTotal() / 1048576.0,
+                progress.getBytesPerSecond() / 1048576.0));
         });
         progressTimer.start();
 
@@ -789,45 +1451,140 @@ public class WordCounterGUI extends JFrame {
         progressDialog.setVisible(true);
     }
 
-    private String getFileContent(File file, boolean preview) throws Exception {
-        String extension = getFileExtension(file);
-        StringBuilder content = new StringBuilder();
-        
-        switch (extension.toLowerCase()) {
-            case "txt":
-                try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-                    String line;
-                    while ((line = reader.readLine()) != null) {
-                        content.append(line).append("\n");
-                        processedBytes += line.length() + 1;
-                        if (preview && content.length() > 500) break;
-                    }
+    /**
+     * Analyzes several files at once, one per core, listing each file's progress and stats as
+     * it finishes. Results are merged per file, so the text of the files is never kept.
+     */
+    private void processFiles(List<File> files) {
+        String[] columnNames = {"File", "Size", "Progress", "Words", "Characters",
+            "Sentences", "Paragraphs", "Unique Words", "Status"};
+        DefaultTableModel model = new DefaultTableModel(columnNames, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        ExtractionProgress[] progress = new ExtractionProgress[files.size()];
+        boolean[] finished = new boolean[files.size()];
+        Tokenizer tokenizer = tokenizerChoice;
+        for (int row = 0; row < files.size(); row++) {
+            File file = files.get(row);
+            progress[row] = new ExtractionProgress();
+            progress[row].setTotal(file.length());
+            model.addRow(new Object[]{file.getName(), String.format("%.2f MB", file.length() / 1048576.0),
+                "0%", "", "", "", "", "", "Waiting"});
+        }
+
+        JTable table = new JTable(model);
+        table.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+        table.getTableHeader().setFont(new Font("Segoe UI", Font.BOLD, 13));
+        JScrollPane scrollPane = new JScrollPane(table);
+        scrollPane.setPreferredSize(new Dimension(860, 300));
+
+        JLabel summaryLabel = new JLabel("Analyzing " + files.size() + " files...");
+        JButton frequencyButton = new JButton("Corpus Word Frequency");
+        frequencyButton.setEnabled(false);
+        JButton cancelButton = new JButton("Cancel");
+        styleButton(frequencyButton);
+
+        JDialog dialog = new JDialog(this, "Analyzing " + files.size() + " Files", true);
+        dialog.setLayout(new BorderLayout(10, 10));
+        summaryLabel.setBorder(BorderFactory.createEmptyBorder(10, 10, 0, 10));
+        dialog.add(summaryLabel, BorderLayout.NORTH);
+        dialog.add(scrollPane, BorderLayout.CENTER);
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttonPanel.add(frequencyButton);
+        buttonPanel.add(cancelButton);
+        dialog.add(buttonPanel, BorderLayout.SOUTH);
+
+        CorpusStats corpus = new CorpusStats();
+        ExecutorService pool = Executors.newFixedThreadPool(
+            Math.min(files.size(), Runtime.getRuntime().availableProcessors()),
+            WorkerThreads.daemonThreads("files"));
+        Timer timer = new Timer(100, e -> {
+            for (int row = 0; row < progress.length; row++) {
+                if (!finished[row] && progress[row].getDone() > 0) {
+                    model.setValueAt(progress[row].getPercent() + "%", row, 2);
                 }
-                break;
-                
-            case "pdf":
-                try (PDDocument document = PDDocument.load(file)) {
-                    PDFTextStripper stripper = new PDFTextStripper();
-                    content.append(stripper.getText(document));
-                    processedBytes = totalBytes;
+            }
+        });
+
+        // Runs on the EDT once per file, however the file ended
+        IntConsumer fileFinished = new IntConsumer() {
+            private int remaining = files.size();
+
+            @Override
+            public void accept(int row) {
+                finished[row] = true;
+                if (--remaining > 0) {
+                    return;
                 }
-                break;
-                
-            case "doc":
-            case "docx":
-                try (FileInputStream fis = new FileInputStream(file);
-                     XWPFDocument document = new XWPFDocument(fis)) {
-                    XWPFWordExtractor extractor = new XWPFWordExtractor(document);
-                    content.append(extractor.getText());
-                    processedBytes = totalBytes;
+                timer.stop();
+                TextStats stats = corpus.toStats();
+                summaryLabel.setText(String.format("%d of %d files analyzed: %d words, %d characters, "
+                        + "%d sentences, %d paragraphs, %d unique words",
+                    corpus.getFiles(), files.size(), stats.getWords(), stats.getCharacters(),
+                    stats.getSentences(), stats.getParagraphs(), stats.getUniqueWords()));
+                frequencyButton.setEnabled(corpus.getFiles() > 0);
+                frequencyButton.addActionListener(e -> showWordFrequencyDialog(new AnalysisSnapshot(stats, 0),
+                    "Corpus Word Frequency (" + corpus.getFiles() + " files)"));
+                cancelButton.setText("Close");
+            }
+        };
+
+        for (int i = 0; i < files.size(); i++) {
+            int row = i;
+            File file = files.get(row);
+            pool.execute(() -> {
+                SwingUtilities.invokeLater(() -> model.setValueAt("Reading", row, 8));
+                try {
+                    if (!FileTextExtractor.isSupported(file)) {
+                        throw new IOException("Unsupported file type");
+                    }
+                    TextAnalyzer analyzer = new TextAnalyzer(tokenizer);
+                    FileTextExtractor.extract(file, analyzer.asWriter(), progress[row]);
+                    TextStats stats = analyzer.finish();
+                    corpus.add(stats);
+                    SwingUtilities.invokeLater(() -> {
+                        model.setValueAt("100%", row, 2);
+                        model.setValueAt(stats.getWords(), row, 3);
+                        model.setValueAt(stats.getCharacters(), row, 4);
+                        model.setValueAt(stats.getSentences(), row, 5);
+                        model.setValueAt(stats.getParagraphs(), row, 6);
+                        model.setValueAt(stats.getUniqueWords(), row, 7);
+                        model.setValueAt("Done", row, 8);
+                    });
+                } catch (InterruptedIOException ex) {
+                    SwingUtilities.invokeLater(() -> model.setValueAt("Cancelled", row, 8));
+                } catch (Exception ex) {
+                    SwingUtilities.invokeLater(() -> model.setValueAt("Failed: " + ex.getMessage(), row, 8));
+                } finally {
+                    SwingUtilities.invokeLater(() -> fileFinished.accept(row));
                 }
-                break;
-                
-            default:
-                throw new UnsupportedOperationException("Unsupported file format: " + extension);
+            });
         }
-        
-        return content.toString();
+        pool.shutdown();
+
+        cancelButton.addActionListener(e -> {
+            for (ExtractionProgress fileProgress : progress) {
+                fileProgress.cancel();
+            }
+            pool.shutdownNow();
+            timer.stop();
+            dialog.dispose();
+        });
+        dialog.setDefaultCloseOperation(JDialog.DO_NOTHING_ON_CLOSE);
+        dialog.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                cancelButton.doClick();
+            }
+        });
+
+        timer.start();
+        dialog.pack();
+        dialog.setLocationRelativeTo(this);
+        dialog.setVisible(true);
     }
 
     private String getFileExtension(File file) {
@@ -0,0 +1,213 @@
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.apache.poi.hwpf.HWPFDocument;
+import org.apache.poi.hwpf.OldWordFileFormatException;
+import org.apache.poi.hwpf.extractor.Word6Extractor;
+import org.apache.poi.hwpf.extractor.WordExtractor;
+import org.apache.poi.hwpf.usermodel.Range;
+import org.apache.poi.poifs.filesystem.FileMagic;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+
+/**
+ * Extracts the text of Word documents, picking the format from the file's content rather
+ * than its extension.
+ *
+ * DOCX files are never loaded as an object model: {@code word/document.xml} is read straight
+ * out of the zip with a StAX parser and the text of each run is written as it is parsed, so
+ * memory stays bounded however large the document is. Paragraphs and table rows end with a
+ * newline and cells are separated by tabs, as in {@code XWPFWordExtractor}.
+ *
+ * Binary {@code .doc} files (Word 97 and later) go through HWPF, paragraph by paragraph;
+ * Word 6 and 95 files fall back to the older extractor.
+ */
+final class WordTextExtractor {
+    private static final String MAIN_DOCUMENT = "word/document.xml";
+    private static final String WORDPROCESSING_NS = "http://schemas.openxmlformats.org/wordprocessingml/2006/main";
+    private static final String STRICT_WORDPROCESSING_NS = "http://purl.oclc.org/ooxml/wordprocessingml/main";
+    private static final String MARKUP_COMPATIBILITY_NS = "http://schemas.openxmlformats.org/markup-compatibility/2006";
+
+    private static final XMLInputFactory XML_INPUT = newInputFactory();
+
+    private WordTextExtractor() {
+    }
+
+    static void extract(File file, Writer out, ExtractionProgress progress) throws IOException {
+        FileMagic magic = FileMagic.valueOf(file);
+        switch (magic) {
+            case OOXML:
+                extractDocx(file, out, progress);
+                break;
+            case OLE2:
+                extractDoc(file, out, progress);
+                break;
+            default:
+                throw new IOException(file.getName() + " is not a Word document (" + magic + ")");
+        }
+    }
+
+    private static void extractDocx(File file, Writer out, ExtractionProgress progress) throws IOException {
+        try (ZipInputStream zip = new ZipInputStream(new CountingInputStream(
+                new BufferedInputStream(new FileInputStream(file)), progress))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (entry.getName().equals(MAIN_DOCUMENT)) {
+                    transferBody(zip, out);
+                    return;
+                }
+            }
+        }
+        throw new IOException(file.getName() + " has no " + MAIN_DOCUMENT);
+    }
+
+    private static void transferBody(InputStream xml, Writer out) throws IOException {
+        XMLStreamReader reader = null;
+        try {
+            reader = XML_INPUT.createXMLStreamReader(xml);
+            int runDepth = 0;
+            int textDepth = 0;
+            int cellDepth = 0;
+            // Separator owed before the next paragraph or cell, so cells hold no trailing ones
+            char pending = 0;
+            // Inside mc:Fallback, which repeats what the preceding mc:Choice already holds
+            int skipDepth = 0;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) {
+                    if (textDepth > 0 && skipDepth == 0) {
+                        out.write(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    }
+                } else if (event == XMLStreamConstants.START_ELEMENT) {
+                    if (skipDepth > 0) {
+                        skipDepth++;
+                    } else if (MARKUP_COMPATIBILITY_NS.equals(reader.getNamespaceURI())
+                            && reader.getLocalName().equals("Fallback")) {
+                        skipDepth = 1;
+                    } else if (isWordElement(reader)) {
+                        switch (reader.getLocalName()) {
+                            case "p":
+                            case "tc":
+                                if (pending != 0) {
+                                    out.write(pending);
+                                    pending = 0;
+                                }
+                                if (reader.getLocalName().equals("tc")) {
+                                    cellDepth++;
+                                }
+                                break;
+                            case "r":
+                                runDepth++;
+                                break;
+                            case "t":
+                                textDepth++;
+                                break;
+                            // Tab stops in paragraph properties are also w:tab, only runs hold text
+                            case "tab":
+                                if (runDepth > 0) {
+                                    out.write('\t');
+                                }
+                                break;
+                            case "br":
+                            case "cr":
+                                if (runDepth > 0) {
+                                    out.write('\n');
+                                }
+                                break;
+                            case "noBreakHyphen":
+                                out.write('-');
+                                break;
+                            default:
+                                break;
+                        }
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    if (skipDepth > 0) {
+                        skipDepth--;
+                    } else if (isWordElement(reader)) {
+                        switch (reader.getLocalName()) {
+                            case "r":
+                                runDepth--;
+                                break;
+                            case "t":
+                                textDepth--;
+                                break;
+                            case "p":
+                                if (cellDepth > 0) {
+                                    pending = '\n';
+                                } else {
+                                    out.write('\n');
+                                }
+                                break;
+                            case "tc":
+                                cellDepth--;
+                                pending = '\t';
+                                break;
+                            case "tr":
+                                pending = 0;
+                                out.write('\n');
+                                break;
+                            case "tbl":
+                                out.write('\n');
+                                break;
+                            default:
+                                break;
+                        }
+                    }
+                }
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Malformed " + MAIN_DOCUMENT + ": " + e.getMessage(), e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException ignored) {
+                    // Nothing left to release, the zip stream is closed by the caller
+                }
+            }
+        }
+    }
+
+    private static boolean isWordElement(XMLStreamReader reader) {
+        String namespace = reader.getNamespaceURI();
+        return WORDPROCESSING_NS.equals(namespace) || STRICT_WORDPROCESSING_NS.equals(namespace);
+    }
+
+    private static void extractDoc(File file, Writer out, ExtractionProgress progress) throws IOException {
+        // Opening from the file reads blocks on demand instead of buffering the whole stream
+        try (POIFSFileSystem fs = new POIFSFileSystem(file, true)) {
+            WordExtractor extractor;
+            try {
+                extractor = new WordExtractor(new HWPFDocument(fs));
+            } catch (OldWordFileFormatException e) {
+                progress.checkCancelled();
+                out.write(new Word6Extractor(fs).getText());
+                return;
+            }
+            String[] paragraphs = extractor.getParagraphText();
+            long bytesPerParagraph = file.length() / Math.max(1, paragraphs.length);
+            for (String paragraph : paragraphs) {
+                progress.checkCancelled();
+                out.write(Range.stripFields(paragraph));
+                progress.advance(bytesPerParagraph);
+            }
+        }
+    }
+
+    private static XMLInputFactory newInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+        return factory;
+    }
+}
@@ -0,0 +1,57 @@
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executors for background analysis work.
+ *
+ * The project still targets Java 11, so virtual threads are looked up reflectively and used
+ * when the running JVM has them (Java 21+). Otherwise a bounded pool of daemon threads is
+ * returned.
+ */
+final class WorkerThreads {
+    private WorkerThreads() {
+    }
+
+    static boolean hasVirtualThreads() {
+        return virtualExecutorFactory() != null;
+    }
+
+    /** Virtual thread per task when available, else at most {@code maxThreads} daemon threads. */
+    static ExecutorService newExecutor(String name, int maxThreads) {
+        Method factory = virtualExecutorFactory();
+        if (factory != null) {
+            try {
+                return (ExecutorService) factory.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                // Fall through to the platform pool
+            }
+        }
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(maxThreads, maxThreads,
+            30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), daemonThreads(name));
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    static ThreadFactory daemonThreads(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static Method virtualExecutorFactory() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
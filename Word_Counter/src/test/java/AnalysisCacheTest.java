@@ -0,0 +1,64 @@
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.stream.Stream;
+import javax.swing.text.PlainDocument;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/** An analysis read back from the cache must match the one stored, phrases included. */
+class AnalysisCacheTest {
+    @TempDir
+    Path directory;
+
+    static Stream<Tokenizer> tokenizers() {
+        return Tokenizer.all().stream();
+    }
+
+    @ParameterizedTest
+    @MethodSource("tokenizers")
+    void putThenGetKeepsCounts(Tokenizer tokenizer) throws Exception {
+        Random random = new Random(tokenizer.getId().hashCode());
+        String text = TextSamples.text(random, 300);
+        // Words an edit removes again stay in the table counted zero times, and the cache drops them
+        String removed = " zebra okapi";
+        PlainDocument document = new PlainDocument();
+        document.insertString(0, text + removed, null);
+        IncrementalTextStats live = IncrementalTextStats.install(document, TextSamples.PHRASE_LENGTH);
+        live.setTokenizer(tokenizer);
+        live.reset(TextAnalyzer.analyze(text + removed, tokenizer, TextSamples.PHRASE_LENGTH), live.getVersion());
+        document.remove(text.length(), removed.length());
+        assertFalse(live.isStale());
+        TextStats stats = live.getStats();
+        WordCountTable frequencies = stats.getFrequencies();
+        assertTrue(frequencies.size() < frequencies.entryCount(), "no entry counted zero times");
+
+        File file = directory.resolve("sample.txt").toFile();
+        Files.write(file.toPath(), text.getBytes(UTF_8));
+        AnalysisCache cache = new AnalysisCache(directory.resolve("cache"), 1 << 20, true);
+        cache.put(file, file.length(), file.lastModified(), stats, text, true);
+        AnalysisCache.Entry entry = cache.get(file);
+
+        assertNotNull(entry, "cache miss");
+        assertEquals(text, entry.getText());
+        assertTrue(entry.isComplete());
+        assertSame(tokenizer, entry.getStats().getTokenizer());
+        TextSamples.assertSameStats(stats, entry.getStats(), tokenizer.getId());
+        TextSamples.assertSameStats(TextAnalyzer.analyze(text, tokenizer, TextSamples.PHRASE_LENGTH), entry.getStats(),
+            tokenizer.getId() + ", against a full analysis");
+
+        Files.write(file.toPath(), "more".getBytes(UTF_8), StandardOpenOption.APPEND);
+        assertNull(cache.get(file), "changed file still cached");
+    }
+}
@@ -0,0 +1,87 @@
+import java.util.Random;
+import java.util.stream.Stream;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.PlainDocument;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/**
+ * Edit-by-edit totals must match a full analysis of the document after every edit, and stats
+ * handed out before an edit must not change with it.
+ */
+class IncrementalTextStatsTest {
+    private static final int DOCUMENTS = 30;
+    private static final int EDITS = 60;
+
+    static Stream<Tokenizer> tokenizers() {
+        return Tokenizer.all().stream();
+    }
+
+    @ParameterizedTest
+    @MethodSource("tokenizers")
+    void editsMatchFullAnalysis(Tokenizer tokenizer) throws BadLocationException {
+        Random random = new Random(tokenizer.getId().hashCode());
+        for (int document = 0; document < DOCUMENTS; document++) {
+            PlainDocument text = new PlainDocument();
+            text.insertString(0, TextSamples.text(random, random.nextInt(60)), null);
+            IncrementalTextStats stats = IncrementalTextStats.install(text, TextSamples.PHRASE_LENGTH);
+            stats.setTokenizer(tokenizer);
+            // Small windows in some documents, so large edits go stale and are reset
+            if (random.nextBoolean()) {
+                stats.setMaxWindow(16 + random.nextInt(64));
+            }
+            stats.reset(analyze(text, tokenizer), stats.getVersion());
+            TextStats expected = analyze(text, tokenizer);
+            TextStats handedOut = stats.getStats();
+
+            for (int edit = 0; edit < EDITS; edit++) {
+                String before = content(text);
+                String description = edit(random, text);
+                String context = tokenizer.getId() + ", " + description + " of " + quote(before);
+                TextSamples.assertSameStats(expected, handedOut, "handed out before " + context);
+                expected = analyze(text, tokenizer);
+                if (stats.isStale()) {
+                    stats.reset(analyze(text, tokenizer), stats.getVersion());
+                    handedOut = stats.getStats();
+                    continue;
+                }
+                handedOut = stats.getStats();
+                TextSamples.assertSameStats(expected, handedOut, context);
+            }
+        }
+    }
+
+    // Inserts, removes or replaces a random range; returns what it did
+    private static String edit(Random random, PlainDocument text) throws BadLocationException {
+        int length = text.getLength();
+        int offset = random.nextInt(length + 1);
+        int removed = length == offset ? 0 : random.nextInt(Math.min(length - offset, 12) + 1);
+        switch (random.nextInt(3)) {
+            case 0: {
+                String inserted = TextSamples.fragment(random);
+                text.insertString(offset, inserted, null);
+                return "insert " + quote(inserted) + " at " + offset;
+            }
+            case 1:
+                text.remove(offset, removed);
+                return "remove " + removed + " at " + offset;
+            default: {
+                String inserted = TextSamples.fragment(random);
+                text.replace(offset, removed, inserted, null);
+                return "replace " + removed + " at " + offset + " with " + quote(inserted);
+            }
+        }
+    }
+
+    private static TextStats analyze(PlainDocument text, Tokenizer tokenizer) throws BadLocationException {
+        return TextAnalyzer.analyze(content(text), tokenizer, TextSamples.PHRASE_LENGTH);
+    }
+
+    private static String content(PlainDocument text) throws BadLocationException {
+        return text.getText(0, text.getLength());
+    }
+
+    private static String quote(String text) {
+        return '"' + text.replace("\n", "\\n").replace("\t", "\\t") + '"';
+    }
+}
@@ -0,0 +1,65 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.Random;
+import java.util.stream.Stream;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/** Counting a text in chunks and merging them must match a single sequential pass. */
+class ParallelTextAnalyzerTest {
+    private static final int TEXTS = 40;
+    // Chinese and Japanese words and punctuation, written without spaces
+    private static final String[] UNSPACED = {"東京", "日本語", "中", "の", "ひらがな", "、", "。", "x", "42"};
+
+    static Stream<Tokenizer> tokenizers() {
+        return Tokenizer.all().stream();
+    }
+
+    @ParameterizedTest
+    @MethodSource("tokenizers")
+    void chunksMatchSequentialPass(Tokenizer tokenizer) {
+        Random random = new Random(tokenizer.getId().hashCode());
+        for (int i = 0; i < TEXTS; i++) {
+            String text = TextSamples.text(random, random.nextInt(2000));
+            // Small chunks, so most texts are cut in many places
+            int chunkSize = 8 + random.nextInt(400);
+            assertSameAnalysis(text, tokenizer, chunkSize, tokenizer.getId() + ", text " + i);
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("tokenizers")
+    void unspacedTextMatchesSequentialPass(Tokenizer tokenizer) {
+        Random random = new Random(tokenizer.getId().hashCode());
+        for (int i = 0; i < TEXTS; i++) {
+            StringBuilder text = new StringBuilder();
+            for (int words = random.nextInt(1000); words > 0; words--) {
+                text.append(UNSPACED[random.nextInt(UNSPACED.length)]);
+            }
+            int chunkSize = 8 + random.nextInt(200);
+            assertSameAnalysis(text.toString(), tokenizer, chunkSize, tokenizer.getId() + ", unspaced text " + i);
+        }
+        // Cut between ideographs only where enough of them come before for the pair and the phrase
+        String text = "x東京日本語";
+        assertEquals(tokenizer != Tokenizer.ASCII, TextAnalyzer.canResumeAt(text, 4, tokenizer, 3));
+        assertFalse(TextAnalyzer.canResumeAt(text, 3, tokenizer, 3));
+    }
+
+    private static void assertSameAnalysis(String text, Tokenizer tokenizer, int chunkSize, String description) {
+        TextStats expected = new TextAnalyzer(tokenizer).countPhrases(TextSamples.PHRASE_LENGTH).indexPositions()
+            .feed(text, 0, text.length()).finish();
+        TextStats actual = ParallelTextAnalyzer.analyzeInChunks(text, tokenizer, TextSamples.PHRASE_LENGTH, true,
+            chunkSize, () -> false);
+
+        String context = description + " in chunks of " + chunkSize;
+        TextSamples.assertSameStats(expected, actual, context);
+        WordCountTable words = expected.getFrequencies();
+        for (int entry = 0; entry < words.entryCount(); entry++) {
+            String word = words.word(entry);
+            assertArrayEquals(expected.getPositions().positions(word, Integer.MAX_VALUE),
+                actual.getPositions().positions(word, Integer.MAX_VALUE), "positions of " + word + ": " + context);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/** Phrases dropped by a full table must leave counts within the reported undercount of the exact ones. */
+class PhraseTableTest {
+    private static final int MAX_LENGTH = 3;
+    private static final int MAX_ENTRIES = 64;
+    private static final int VOCABULARY = 40;
+    private static final int WORDS = 20000;
+
+    @Test
+    void prunedCountsStayWithinUndercount() {
+        Random random = new Random(42);
+        PhraseTable exact = new PhraseTable(MAX_LENGTH);
+        PhraseTable pruned = new PhraseTable(MAX_LENGTH, MAX_ENTRIES);
+        int[] sentence = new int[MAX_LENGTH];
+        int size = 0;
+        for (int i = 0; i < WORDS; i++) {
+            if (random.nextInt(12) == 0) {
+                size = 0; // a new sentence
+            }
+            if (size == MAX_LENGTH) {
+                System.arraycopy(sentence, 1, sentence, 0, --size);
+            }
+            // Skewed towards low entries, so some phrases are frequent and many are rare
+            int word = (int) (VOCABULARY * Math.pow(random.nextDouble(), 3));
+            sentence[size++] = word;
+            exact.countEnding(sentence, size);
+            pruned.countEnding(sentence, size);
+        }
+
+        assertTrue(pruned.isApproximate(), "never pruned");
+        for (int length = 2; length <= MAX_LENGTH; length++) {
+            assertEquals(exact.getTotal(length), pruned.getTotal(length), "total of " + length + "-word phrases");
+            assertTrue(pruned.entryCount(length) <= MAX_ENTRIES, length + "-word phrases over the limit");
+            Map<List<Integer>, Integer> kept = counts(pruned, length);
+            long undercount = pruned.getMaxUndercount(length);
+            for (Map.Entry<List<Integer>, Integer> phrase : counts(exact, length).entrySet()) {
+                int count = phrase.getValue();
+                int left = kept.getOrDefault(phrase.getKey(), 0);
+                assertTrue(left <= count && count - left <= undercount,
+                    phrase.getKey() + " counted " + left + " of " + count + ", undercount " + undercount);
+            }
+        }
+    }
+
+    private static Map<List<Integer>, Integer> counts(PhraseTable phrases, int length) {
+        Map<List<Integer>, Integer> counts = new HashMap<>();
+        for (int entry = 0; entry < phrases.entryCount(length); entry++) {
+            if (phrases.count(length, entry) > 0) {
+                Integer[] words = new Integer[length];
+                for (int position = 0; position < length; position++) {
+                    words[position] = phrases.word(length, entry, position);
+                }
+                counts.put(Arrays.asList(words), phrases.count(length, entry));
+            }
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,68 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/** Positions read back from an index, appended parts included, must be the ones added, in order. */
+class PositionIndexTest {
+    private static final String[] WORDS = {"the", "cat", "sat", "on", "mat"};
+    private static final int PARTS = 3;
+    // Enough occurrences of the first words to fill slices of every level several times
+    private static final int MAX_OCCURRENCES = 6000;
+
+    @Test
+    void appendedPartsReadBackInOrder() {
+        Random random = new Random(42);
+        List<List<Long>> expected = new ArrayList<>();
+        for (int i = 0; i < WORDS.length; i++) {
+            expected.add(new ArrayList<>());
+        }
+        WordCountTable total = new WordCountTable();
+        PositionIndex index = null;
+        long position = 0;
+        for (int part = 0; part < PARTS; part++) {
+            WordCountTable words = part == 0 ? total : new WordCountTable();
+            PositionIndex partIndex = new PositionIndex(words);
+            // Each part numbers the words in its own order, and the last word only occurs in the last part
+            for (int w = 0; w < WORDS.length; w++) {
+                int word = (w + part) % WORDS.length;
+                if (word == WORDS.length - 1 && part < PARTS - 1) {
+                    continue;
+                }
+                int entry = add(words, WORDS[word], 0);
+                for (int n = MAX_OCCURRENCES >> word; n > 0; n--) {
+                    // Mostly short gaps, with some that take several varint bytes and may not fit a slice
+                    position += random.nextInt(8) == 0 ? 1 + random.nextInt(1 << 30) : 1 + random.nextInt(100);
+                    partIndex.add(entry, position);
+                    expected.get(word).add(position);
+                    add(words, WORDS[word], 1);
+                    if (part > 0) {
+                        add(total, WORDS[word], 1);
+                    }
+                }
+            }
+            if (index == null) {
+                index = partIndex;
+            } else {
+                index.append(partIndex);
+            }
+        }
+
+        for (int word = 0; word < WORDS.length; word++) {
+            long[] all = expected.get(word).stream().mapToLong(Long::longValue).toArray();
+            assertArrayEquals(all, index.positions(WORDS[word], Integer.MAX_VALUE), WORDS[word]);
+            for (int limit : new int[]{1, 7, 100, all.length - 1}) {
+                assertArrayEquals(Arrays.copyOf(all, Math.min(limit, all.length)), index.positions(WORDS[word], limit),
+                    WORDS[word] + ", first " + limit);
+            }
+        }
+    }
+
+    private static int add(WordCountTable table, String word, int delta) {
+        char[] chars = word.toCharArray();
+        return table.add(chars, 0, chars.length, WordCountTable.spread(word.hashCode()), true, delta);
+    }
+}
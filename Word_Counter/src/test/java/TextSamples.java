@@ -0,0 +1,85 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/** Random texts for the equivalence tests, and the comparison they share. */
+final class TextSamples {
+    static final int PHRASE_LENGTH = 3;
+
+    // Repeated words in several scripts, with apostrophes, hyphens, digits and a supplementary character
+    private static final String[] WORDS = {
+        "the", "The", "cat", "sat", "on", "mat", "don't", "e-mail", "42", "3.14", "naïve", "café", "Straße",
+        "東京", "日本語", "中", "한국어", "x", "𝒳y", "word", "WORD", "it's"
+    };
+    private static final String[] SEPARATORS = {
+        " ", " ", " ", "  ", "\t", "\n", "\n\n", ". ", "! ", "? ", ", ", ".\n", "...", " - "
+    };
+    // Single characters inserted by edits, which may split or join words
+    private static final String CHARACTERS = "ab .!?\n'-é東";
+
+    private TextSamples() {
+    }
+
+    static String text(Random random, int words) {
+        StringBuilder text = new StringBuilder();
+        if (random.nextInt(4) == 0) {
+            text.append(SEPARATORS[random.nextInt(SEPARATORS.length)]);
+        }
+        for (int i = 0; i < words; i++) {
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+            text.append(SEPARATORS[random.nextInt(SEPARATORS.length)]);
+        }
+        return text.toString();
+    }
+
+    /** A few words, separators or single characters, to insert into a text. */
+    static String fragment(Random random) {
+        switch (random.nextInt(3)) {
+            case 0:
+                return text(random, 1 + random.nextInt(4));
+            case 1:
+                return SEPARATORS[random.nextInt(SEPARATORS.length)];
+            default:
+                return String.valueOf(CHARACTERS.charAt(random.nextInt(CHARACTERS.length())));
+        }
+    }
+
+    /** Fails unless {@code actual} has the same totals, word counts and phrase counts as {@code expected}. */
+    static void assertSameStats(TextStats expected, TextStats actual, String context) {
+        assertEquals(expected.getWords(), actual.getWords(), "words: " + context);
+        assertEquals(expected.getCharacters(), actual.getCharacters(), "characters: " + context);
+        assertEquals(expected.getSentences(), actual.getSentences(), "sentences: " + context);
+        assertEquals(expected.getParagraphs(), actual.getParagraphs(), "paragraphs: " + context);
+        assertEquals(expected.getUniqueWords(), actual.getUniqueWords(), "unique words: " + context);
+        assertEquals(counts(expected.getFrequencies()), counts(actual.getFrequencies()), "word counts: " + context);
+        for (int length = 2; length <= PHRASE_LENGTH; length++) {
+            assertEquals(expected.getPhrases().getTotal(length), actual.getPhrases().getTotal(length),
+                length + "-word phrase total: " + context);
+            assertEquals(counts(expected.getPhrases(), length, expected.getFrequencies()),
+                counts(actual.getPhrases(), length, actual.getFrequencies()), length + "-word phrases: " + context);
+        }
+    }
+
+    // Entries whose count dropped to zero are left in a table, so only the others are compared
+    private static Map<String, Integer> counts(WordCountTable table) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (int entry = 0; entry < table.entryCount(); entry++) {
+            if (table.count(entry) != 0) {
+                counts.put(table.word(entry), table.count(entry));
+            }
+        }
+        return counts;
+    }
+
+    private static Map<String, Integer> counts(PhraseTable phrases, int length, WordCountTable words) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (int entry = 0; entry < phrases.entryCount(length); entry++) {
+            if (phrases.count(length, entry) != 0) {
+                counts.put(phrases.phrase(length, entry, words), phrases.count(length, entry));
+            }
+        }
+        return counts;
+    }
+}